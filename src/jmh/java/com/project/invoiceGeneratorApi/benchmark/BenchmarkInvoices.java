@@ -0,0 +1,77 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.project.invoiceGeneratorApi.entity.Invoice;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+// PURPOSE: Builds realistic invoice documents for the benchmarks: a given number of line items
+// and, optionally, an inline base64 logo of a given size (as legacy documents and clients send them).
+
+final class BenchmarkInvoices {
+
+    private BenchmarkInvoices() {
+    }
+
+    static Invoice invoice(String clerkId, int itemCount, int logoKb, long seed) {
+        Random random = new Random(seed);
+
+        Invoice invoice = new Invoice();
+        invoice.setClerkId(clerkId);
+        invoice.setTitle("Invoice " + seed);
+        invoice.setTemplate("template1");
+        invoice.setNotes("Payment due within 30 days. Thank you for your business!");
+        invoice.setTax(18);
+
+        Invoice.Company company = new Invoice.Company();
+        company.setName("Acme Consulting Pvt Ltd");
+        company.setPhone("+91 98765 43210");
+        company.setAddress("42 Residency Road, Bengaluru, Karnataka 560025");
+        invoice.setCompany(company);
+
+        Invoice.Billing billing = new Invoice.Billing();
+        billing.setName("Customer " + (seed % 50));
+        billing.setPhone("+91 91234 56789");
+        billing.setAddress("7 MG Road, Pune, Maharashtra 411001");
+        invoice.setBilling(billing);
+
+        Invoice.Shipping shipping = new Invoice.Shipping();
+        shipping.setName(billing.getName());
+        shipping.setPhone(billing.getPhone());
+        shipping.setAddress(billing.getAddress());
+        invoice.setShipping(shipping);
+
+        Invoice.InvoiceDetails details = new Invoice.InvoiceDetails();
+        details.setNumber("INV-" + seed);
+        details.setDate("2025-01-15");
+        details.setDueDate("2025-02-14");
+        invoice.setInvoice(details);
+
+        List<Invoice.Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Invoice.Item item = new Invoice.Item();
+            item.setName("Service line " + i);
+            item.setDescription("Consulting hours for sprint " + i + ", including review and documentation");
+            item.setQty(1 + random.nextInt(20));
+            item.setAmount(100 + random.nextInt(5000));
+            items.add(item);
+        }
+        invoice.setItems(items);
+        invoice.assignItemIds();
+        invoice.computeDerivedFields();
+
+        if (logoKb > 0) {
+            byte[] logo = new byte[logoKb * 1024];
+            random.nextBytes(logo);
+            invoice.setLogo("data:image/png;base64," + Base64.getEncoder().encodeToString(logo));
+        }
+
+        invoice.setVersion(0L);
+        invoice.setCreatedAt(Instant.now());
+        invoice.setLastUpdatedAt(invoice.getCreatedAt());
+        return invoice;
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.project.invoiceGeneratorApi.service.EmailService;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: CPU cost of preparing an invoice email without the SMTP round trip:
+//   build  - EmailService.createInvoiceMessage (headers, multipart structure)
+//   encode - build plus writing the message out, which base64-encodes the PDF attachment
+//            exactly as it is streamed to the SMTP server
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailMessageBenchmark {
+
+    @Param({"50", "500"})
+    public int attachmentKb;
+
+    private EmailService emailService;
+    private ByteArrayResource attachment;
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService(new JavaMailSenderImpl());
+        ReflectionTestUtils.setField(emailService, "fromEmail", "invoices@benchmark.local");
+
+        byte[] pdf = new byte[attachmentKb * 1024];
+        new Random(1).nextBytes(pdf);
+        attachment = new ByteArrayResource(pdf);
+    }
+
+    @Benchmark
+    public MimeMessage build() throws Exception {
+        return emailService.createInvoiceMessage("customer@benchmark.local", "invoice.pdf", attachment, "application/pdf");
+    }
+
+    @Benchmark
+    public MimeMessage encode() throws Exception {
+        MimeMessage message = build();
+        message.saveChanges();
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+}
@@ -0,0 +1,106 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.mongodb.MongoClientSettings;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Application-side cost of saving and listing invoices, with an in-memory stand-in
+// for the Mongo server. Each operation does what the repository does on our side of the wire:
+// Spring Data mapping (Invoice <-> Document) plus BSON encoding/decoding by the driver codec.
+// Server time and network are excluded, so regressions here are ours alone.
+//   save - map and encode one invoice, store it
+//   list - decode and map a user's 'pageSize' invoices, as GET /api/invoices does
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoicePersistenceBenchmark {
+
+    private static final String CLERK_ID = "user_benchmark";
+
+    @Param({"1", "10"})
+    public int items;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private MappingMongoConverter converter;
+    private final DocumentCodec codec = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+    private final Map<String, List<RawBsonDocument>> collection = new ConcurrentHashMap<>();
+    private Invoice invoice;
+    private RawBsonDocument lastSaved;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        invoice = BenchmarkInvoices.invoice(CLERK_ID, items, 0, 1);
+
+        List<RawBsonDocument> stored = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            stored.add(encode(BenchmarkInvoices.invoice(CLERK_ID, items, 0, i)));
+        }
+        collection.put(CLERK_ID, stored);
+    }
+
+    @Benchmark
+    public RawBsonDocument save() {
+        // A fresh id every time, like an insert.
+        invoice.setId(null);
+        lastSaved = encode(invoice);
+        return lastSaved;
+    }
+
+    @Benchmark
+    public List<Invoice> list() {
+        List<RawBsonDocument> stored = collection.get(CLERK_ID);
+        List<Invoice> invoices = new ArrayList<>(stored.size());
+        for (RawBsonDocument document : stored) {
+            invoices.add(converter.read(Invoice.class, document.decode(codec)));
+        }
+        return invoices;
+    }
+
+    private RawBsonDocument encode(Invoice value) {
+        Document document = new Document();
+        converter.write(value, document);
+        if (!document.containsKey("_id")) {
+            document.put("_id", new ObjectId());
+        }
+        return new RawBsonDocument(document, codec);
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Cost of turning an Invoice into a JSON response body and back (request body),
+// with the ObjectMapper configured the way Spring Boot configures it. Varies the number of
+// line items and the size of an inline logo, which dominates legacy documents.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    @Param({"0", "100"})
+    public int logoKb;
+
+    private ObjectMapper objectMapper;
+    private Invoice invoice;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        invoice = BenchmarkInvoices.invoice("user_benchmark", items, logoKb, 1);
+        json = objectMapper.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public Invoice deserialize() throws Exception {
+        return objectMapper.readValue(json, Invoice.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.project.invoiceGeneratorApi.security.ClerkJwksprovider;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: ClerkJwksprovider.getPublicKey as seen by concurrent request threads. The JWKS is
+// served by a local HTTP server, so only the first call goes over the (loopback) network.
+//   knownKid    - cache hit, 1 and 8 threads: should scale linearly, there is no lock to contend on
+//   unknownKid  - a kid that is not in the JWKS, answered from the negative cache after the
+//                 first miss instead of hitting Clerk again
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwksProviderBenchmark {
+
+    private static final String KID = "benchmark-kid";
+
+    private HttpServer jwksServer;
+    private ClerkJwksprovider provider;
+
+    @Setup
+    public void setUp() {
+        RSAPublicKey key = (RSAPublicKey) Keys.keyPairFor(SignatureAlgorithm.RS256).getPublic();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] jwks = ("{\"keys\":[{\"kid\":\"" + KID + "\",\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\","
+                + "\"n\":\"" + encoder.encodeToString(unsigned(key.getModulus().toByteArray())) + "\","
+                + "\"e\":\"" + encoder.encodeToString(unsigned(key.getPublicExponent().toByteArray())) + "\"}]}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        try {
+            jwksServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        jwksServer.createContext("/jwks", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            exchange.getResponseBody().write(jwks);
+            exchange.close();
+        });
+        jwksServer.start();
+
+        provider = new ClerkJwksprovider(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "jwksUrl",
+                "http://127.0.0.1:" + jwksServer.getAddress().getPort() + "/jwks");
+
+        // First lookup fetches the JWKS; the second primes the negative cache.
+        provider.getPublicKey(KID);
+        unknownKid();
+    }
+
+    @TearDown
+    public void tearDown() {
+        jwksServer.stop(0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PublicKey knownKid() {
+        return provider.getPublicKey(KID);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public PublicKey knownKidContended() {
+        return provider.getPublicKey(KID);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object unknownKid() {
+        try {
+            return provider.getPublicKey("rotated-away-kid");
+        } catch (ClerkJwksprovider.KeyNotFoundException e) {
+            return e;
+        }
+    }
+
+    // BigInteger.toByteArray() may prepend a sign byte, which JWKS values don't carry.
+    private static byte[] unsigned(byte[] bytes) {
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+}
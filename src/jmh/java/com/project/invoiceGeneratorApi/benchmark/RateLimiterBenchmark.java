@@ -0,0 +1,116 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.project.invoiceGeneratorApi.security.RateLimitFilter;
+import com.project.invoiceGeneratorApi.security.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Per-request cost of rate limiting. Budgets are set high enough that every request
+// is allowed, so the numbers are the overhead every request pays:
+//   keyed          - one permit from a per-user bucket, cycling through 10k users
+//   global         - one permit from the striped global bucket
+//   globalContended- the same with 4 threads taking permits at once
+//   filter         - RateLimitFilter around an empty chain (route match, principal, one bucket)
+//   noFilter       - the empty chain alone, to subtract from 'filter'
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final int BURST = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        RateLimiter.GlobalLimit global;
+
+        @Setup
+        public void setUp() {
+            global = new RateLimiter(USERS * 2, 30_000).global("global", UNLIMITED, BURST);
+        }
+    }
+
+    private RateLimiter.KeyedLimit keyed;
+    private RateLimiter.GlobalLimit global;
+    private String[] users;
+    private int next;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        RateLimiter rateLimiter = new RateLimiter(USERS * 2, 30_000);
+        keyed = rateLimiter.keyed("keyed", UNLIMITED, BURST);
+        global = rateLimiter.global("global", UNLIMITED, BURST);
+        users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user_" + Integer.toHexString(0x2f000000 + i);
+        }
+
+        filter = new RateLimitFilter(rateLimiter, new SimpleMeterRegistry(), true,
+                UNLIMITED, BURST, UNLIMITED, BURST, UNLIMITED, BURST,
+                UNLIMITED, BURST, UNLIMITED, BURST, UNLIMITED, BURST);
+        request = new MockHttpServletRequest("POST", "/api/emails/sendInvoice");
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                users[0], null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Benchmark
+    public long keyed() {
+        String user = users[next];
+        next = next + 1 == USERS ? 0 : next + 1;
+        return keyed.tryAcquire(user, System.nanoTime());
+    }
+
+    @Benchmark
+    public long global() {
+        return global.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long globalContended(Shared shared) {
+        return shared.global.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public int filter() throws Exception {
+        filter.doFilter(request, response, chain);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int noFilter() throws Exception {
+        chain.doFilter(request, response);
+        return response.getStatus();
+    }
+}
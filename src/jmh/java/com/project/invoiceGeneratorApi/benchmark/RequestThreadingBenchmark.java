@@ -0,0 +1,119 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Load-test model of the blocking request pipeline under platform vs virtual threads.
+// Each simulated request does what a typical invoice read does: a few Mongo round trips
+// (modelled as 5 ms waits) around a little CPU work for JSON. A burst of 'inFlight'
+// concurrent requests is served either by Tomcat's default 200-thread pool or by one
+// virtual thread per request (spring.threads.virtual.enabled=true), or, for the 'reactive'
+// profile, as a non-blocking pipeline where each round trip is a timer callback and no
+// thread waits at all. The score is the time to drain the whole burst.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int ROUND_TRIPS = 3;
+    private static final long ROUND_TRIP_MILLIS = 5;
+
+    @Param({"200", "1000", "5000"})
+    public int inFlight;
+
+    private ExecutorService platformPool;
+    private ExecutorService virtualThreads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        platformPool = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        platformPool.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public long platformThreads() throws Exception {
+        return serveBurst(platformPool);
+    }
+
+    @Benchmark
+    public long virtualThreads() throws Exception {
+        return serveBurst(virtualThreads);
+    }
+
+    @Benchmark
+    public long reactive() {
+        return Flux.range(0, inFlight)
+                .flatMap(i -> handleRequestReactive(), inFlight)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private long serveBurst(ExecutorService executor) throws Exception {
+        List<Future<Long>> responses = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            responses.add(executor.submit(RequestThreadingBenchmark::handleRequest));
+        }
+        long checksum = 0;
+        for (Future<Long> response : responses) {
+            checksum += response.get();
+        }
+        return checksum;
+    }
+
+    private static long handleRequest() throws InterruptedException {
+        long work = 0;
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            Thread.sleep(ROUND_TRIP_MILLIS);
+            work = cpuWork(work);
+        }
+        return work;
+    }
+
+    private static Mono<Long> handleRequestReactive() {
+        Mono<Long> work = Mono.just(0L);
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            work = work.delayElement(Duration.ofMillis(ROUND_TRIP_MILLIS)).map(RequestThreadingBenchmark::cpuWork);
+        }
+        return work;
+    }
+
+    private static long cpuWork(long work) {
+        for (int j = 0; j < 2_000; j++) {
+            work += j ^ (work >>> 3);
+        }
+        return work;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.invoiceGeneratorApi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.invoiceGeneratorApi.security.ClerkJwksprovider;
+import com.project.invoiceGeneratorApi.security.ClerkTokenVerifier;
+import com.project.invoiceGeneratorApi.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Compares the cost of authenticating one request with a Clerk token:
+//   perRequestParser - the original filter: new ObjectMapper and JwtParser for every request
+//   cold             - ClerkTokenVerifier without its token cache (prebuilt parser, full RSA verify)
+//   warm             - ClerkTokenVerifier with the token already cached (hash + lookup)
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    static final String ISSUER = "https://clerk.benchmark.local";
+    static final String KID = "benchmark-kid";
+
+    private String token;
+    private PublicKey publicKey;
+    private ClerkTokenVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        publicKey = keyPair.getPublic();
+        token = signedToken(keyPair);
+
+        verifier = new ClerkTokenVerifier(ISSUER, new StaticJwksProvider(publicKey), new SimpleMeterRegistry());
+        verifier.verify(token);
+    }
+
+    @Benchmark
+    public Claims perRequestParser() throws Exception {
+        String headerJson = new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]));
+        new ObjectMapper().readTree(headerJson).get("kid").asText();
+
+        return Jwts.parserBuilder()
+                .setSigningKey(publicKey)
+                .setAllowedClockSkewSeconds(60)
+                .requireIssuer(ISSUER)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public VerifiedToken cold() {
+        return verifier.verifyUncached(token);
+    }
+
+    @Benchmark
+    public VerifiedToken warm() {
+        return verifier.verify(token);
+    }
+
+    static String signedToken(KeyPair keyPair) {
+        return Jwts.builder()
+                .setHeaderParam("kid", KID)
+                .setSubject("user_benchmark")
+                .setIssuer(ISSUER)
+                .setExpiration(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    // Serves a fixed key without touching the network.
+    static class StaticJwksProvider extends ClerkJwksprovider {
+
+        private final PublicKey publicKey;
+
+        StaticJwksProvider(PublicKey publicKey) {
+            super(new SimpleMeterRegistry());
+            this.publicKey = publicKey;
+        }
+
+        @Override
+        public PublicKey getPublicKey(String kid) {
+            return publicKey;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.invoiceGeneratorApi.asset;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+final class AssetHashing {
+
+    private AssetHashing() {
+    }
+
+    static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256.
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.project.invoiceGeneratorApi.asset;
+
+import java.util.Optional;
+
+// PURPOSE: Content-addressed storage for invoice images (logos, thumbnails).
+// Assets are keyed by the SHA-256 of their bytes, so storing the same logo for a thousand
+// invoices keeps exactly one copy, and an asset never changes once written.
+
+public interface AssetStore {
+
+    // Stores the bytes unless an asset with the same id already exists. Returns the asset id.
+    String put(byte[] bytes, String contentType);
+
+    Optional<StoredAsset> get(String id);
+
+    static boolean isValidId(String id) {
+        return id != null && id.matches("[0-9a-f]{64}");
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.invoiceGeneratorApi.asset;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// PURPOSE: Default AssetStore. Each asset is a GridFS file whose filename is its SHA-256.
+
+@Component
+@ConditionalOnProperty(name = "invoice.assets.store", havingValue = "gridfs", matchIfMissing = true)
+@RequiredArgsConstructor
+public class GridFsAssetStore implements AssetStore {
+
+    private final GridFsTemplate gridFsTemplate;
+
+    @Override
+    public String put(byte[] bytes, String contentType) {
+        String id = AssetHashing.sha256Hex(bytes);
+        // Two concurrent puts of the same bytes may both write; get() reads either copy, and
+        // both hold identical content, so the race is harmless.
+        if (find(id) == null) {
+            gridFsTemplate.store(new ByteArrayInputStream(bytes), id, contentType, new Document("kind", "asset"));
+        }
+        return id;
+    }
+
+    @Override
+    public Optional<StoredAsset> get(String id) {
+        if (!AssetStore.isValidId(id)) {
+            return Optional.empty();
+        }
+        GridFSFile file = find(id);
+        if (file == null) {
+            return Optional.empty();
+        }
+        String contentType = file.getMetadata() != null ? file.getMetadata().getString("_contentType") : null;
+        return Optional.of(new StoredAsset(id, contentType, file.getLength(),
+                () -> gridFsTemplate.getResource(file).getInputStream()));
+    }
+
+    private GridFSFile find(String id) {
+        return gridFsTemplate.findOne(query(where("filename").is(id)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.project.invoiceGeneratorApi.asset;
+
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+
+// PURPOSE: Moves inline images (base64 data URLs) out of invoices into the AssetStore, and
+// turns asset references back into URLs for API responses. Stored invoice documents only
+// carry the 64-character asset id instead of a 100-500 KB logo.
+
+@Component
+@RequiredArgsConstructor
+public class InvoiceAssets {
+
+    public static final String ASSET_PATH = "/api/assets/";
+
+    // Assets are served publicly from the API origin with their stored type, so only raster
+    // images are accepted: HTML or SVG would run script there.
+    public static final Set<String> ALLOWED_CONTENT_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+
+    private final AssetStore assetStore;
+
+    // Absolute base for asset URLs (e.g. https://api.example.com). When blank, the base of the
+    // current request is used, or a relative path outside of a request.
+    @Value("${invoice.assets.base-url:}")
+    private String baseUrl;
+
+    // Call before saving: replaces data-URL logos/thumbnails with asset references.
+    public void extract(Invoice invoice) {
+        String logoId = toAssetId(invoice.getLogo());
+        if (logoId != null) {
+            invoice.setLogoAssetId(logoId);
+            invoice.setLogo(null);
+        }
+
+        String thumbnailId = toAssetId(invoice.getThumbnailUrl());
+        if (thumbnailId != null) {
+            invoice.setThumbnailAssetId(thumbnailId);
+            invoice.setThumbnailUrl(null);
+        }
+    }
+
+    // Call before returning an invoice to a client: fills logo/thumbnailUrl from asset references.
+    public Invoice resolve(Invoice invoice) {
+        if (invoice.getLogoAssetId() != null) {
+            invoice.setLogo(urlFor(invoice.getLogoAssetId()));
+        }
+        if (invoice.getThumbnailAssetId() != null) {
+            invoice.setThumbnailUrl(urlFor(invoice.getThumbnailAssetId()));
+        }
+        return invoice;
+    }
+
+    public String urlFor(String assetId) {
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            return baseUrl + ASSET_PATH + assetId;
+        }
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            return ServletUriComponentsBuilder.fromCurrentContextPath().path(ASSET_PATH + assetId).toUriString();
+        }
+        return ASSET_PATH + assetId;
+    }
+
+    // Returns the asset id for a data URL (storing the bytes) or for one of our own asset URLs
+    // that a client sent back unchanged; null for anything else (external URLs, empty values).
+    // Throws IllegalArgumentException for a data URL that isn't a PNG, JPEG, GIF or WebP image.
+    private String toAssetId(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        if (value.startsWith("data:")) {
+            int comma = value.indexOf(',');
+            String header = comma > 0 ? value.substring(5, comma) : "";
+            if (comma < 0 || !header.endsWith(";base64")) {
+                return null;
+            }
+            String contentType = header.substring(0, header.length() - ";base64".length()).trim().toLowerCase(Locale.ROOT);
+            if (!ALLOWED_CONTENT_TYPES.contains(contentType)) {
+                throw new IllegalArgumentException("Unsupported image type '" + contentType
+                        + "'; use PNG, JPEG, GIF or WebP.");
+            }
+            byte[] bytes = Base64.getMimeDecoder().decode(value.substring(comma + 1));
+            return assetStore.put(bytes, contentType);
+        }
+
+        int assetPath = value.indexOf(ASSET_PATH);
+        if (assetPath >= 0) {
+            String id = value.substring(assetPath + ASSET_PATH.length());
+            return AssetStore.isValidId(id) ? id : null;
+        }
+        return null;
+    }
+}
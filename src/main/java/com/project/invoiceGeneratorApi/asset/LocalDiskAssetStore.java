@@ -0,0 +1,80 @@
+package com.project.invoiceGeneratorApi.asset;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+// PURPOSE: AssetStore on the local file system, for tests and single-node development.
+// Layout: <root>/<first two hex chars>/<id> plus <id>.type holding the content type.
+
+@Component
+@ConditionalOnProperty(name = "invoice.assets.store", havingValue = "local")
+public class LocalDiskAssetStore implements AssetStore {
+
+    private final Path root;
+
+    public LocalDiskAssetStore(@Value("${invoice.assets.local-dir:${java.io.tmpdir}/invoice-assets}") String root) {
+        this.root = Path.of(root);
+    }
+
+    @Override
+    public String put(byte[] bytes, String contentType) {
+        String id = AssetHashing.sha256Hex(bytes);
+        Path file = pathFor(id);
+        if (Files.exists(file)) {
+            return id;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            if (contentType != null) {
+                Files.writeString(typePathFor(id), contentType, StandardCharsets.UTF_8);
+            }
+            // Write to a temp file and move it into place so readers never see a partial asset.
+            Path temp = Files.createTempFile(file.getParent(), id, ".tmp");
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return id;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store asset " + id, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredAsset> get(String id) {
+        if (!AssetStore.isValidId(id)) {
+            return Optional.empty();
+        }
+        Path file = pathFor(id);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            Path typeFile = typePathFor(id);
+            String contentType = Files.exists(typeFile) ? Files.readString(typeFile, StandardCharsets.UTF_8) : null;
+            return Optional.of(new StoredAsset(id, contentType, Files.size(file), () -> Files.newInputStream(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read asset " + id, e);
+        }
+    }
+
+    private Path pathFor(String id) {
+        return root.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private Path typePathFor(String id) {
+        return root.resolve(id.substring(0, 2)).resolve(id + ".type");
+    }
+}
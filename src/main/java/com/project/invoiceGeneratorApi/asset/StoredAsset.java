@@ -0,0 +1,20 @@
+package com.project.invoiceGeneratorApi.asset;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.MediaType;
+
+// PURPOSE: An asset as read back from an AssetStore. 'id' is the SHA-256 (hex) of the bytes,
+// which also makes it a perfect strong ETag: same id, same bytes, forever.
+
+public record StoredAsset(String id, String contentType, long length, InputStreamSource content) {
+
+    // The type to serve the asset with: its stored type when that's one of the accepted images,
+    // otherwise application/octet-stream. Assets stored before types were checked may carry
+    // anything, including types that don't parse.
+    public MediaType mediaType() {
+        if (contentType == null || !InvoiceAssets.ALLOWED_CONTENT_TYPES.contains(contentType)) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        return MediaType.parseMediaType(contentType);
+    }
+}
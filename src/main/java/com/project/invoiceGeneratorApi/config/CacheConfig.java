@@ -0,0 +1,38 @@
+package com.project.invoiceGeneratorApi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// PURPOSE: Read-through caches in front of MongoDB. Spring's cache abstraction keeps the
+// callers independent of the provider: in-process Caffeine (size-bounded W-TinyLFU eviction
+// plus a TTL) by default, and a distributed cache can be configured with spring.cache.type.
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // clerkId -> User
+    public static final String USERS = "users";
+
+    // clerkId -> generation token; evicting it invalidates all of the user's cached pages
+    public static final String INVOICE_SUMMARY_GENERATIONS = "invoiceSummaryGenerations";
+
+    // clerkId:generation:page -> InvoiceSummaryPage
+    public static final String INVOICE_SUMMARIES = "invoiceSummaries";
+
+    // Only applied when the cache manager is Caffeine's.
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> caffeineCaches(@Value("${invoice.cache.users-spec}") String usersSpec,
+                                                                       @Value("${invoice.cache.invoice-summaries-spec}") String summariesSpec) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(USERS, Caffeine.from(usersSpec).build());
+            cacheManager.registerCustomCache(INVOICE_SUMMARY_GENERATIONS, Caffeine.from(usersSpec).build());
+            cacheManager.registerCustomCache(INVOICE_SUMMARIES, Caffeine.from(summariesSpec).build());
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.project.invoiceGeneratorApi.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+// PURPOSE: Creates the @CompoundIndex/@Indexed indexes declared on our documents at startup.
+// spring.data.mongodb.auto-index-creation is off by default, and several of these indexes are
+// load-bearing rather than just fast: unique ones stop duplicate contacts, rollup rows and
+// scheduled invoices, the text index backs search, and the TTL one expires webhook events.
+// createIndex is a no-op for an index that already exists; a conflicting or unbuildable
+// index (e.g. duplicates under a new unique key) fails startup instead of going unnoticed.
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @PostConstruct
+    void createIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;   // embedded types; their indexes are resolved through the owning document
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                String name = indexOps.createIndex(index);
+                log.debug("Ensured index {} on {}", name, entity.getCollection());
+            }
+        }
+    }
+}
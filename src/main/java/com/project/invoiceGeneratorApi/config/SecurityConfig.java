@@ -1,27 +1,43 @@
 package com.project.invoiceGeneratorApi.config;
 
 import com.project.invoiceGeneratorApi.security.ClerkJwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.List;
+import java.util.Set;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    // Actuator endpoints that liveness probes and the Prometheus scraper call without a Clerk token.
+    public static final Set<String> UNAUTHENTICATED_ACTUATOR_PATHS = Set.of("/actuator/health", "/actuator/prometheus");
+
     private final ClerkJwtAuthFilter jwtAuthFilter;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
         httpSecurity
@@ -33,8 +49,14 @@ public class SecurityConfig {
 
             // Configure request authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (streamed exports) were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Permit all requests to the webhooks endpoint
                         .requestMatchers("/api/webhooks/**").permitAll()
+                        // Content-addressed images; the unguessable id is the capability
+                        .requestMatchers(HttpMethod.GET, "/api/assets/**").permitAll()
+                        // Liveness checks and the Prometheus scraper don't carry a Clerk token; open on the management port only
+                        .requestMatchers(unauthenticatedActuatorRequests()).permitAll()
                         // Require authentication for all other requests
                         .anyRequest().authenticated()
                 )
@@ -46,9 +68,31 @@ public class SecurityConfig {
         return httpSecurity.build();
     }
 
+    // Health and Prometheus are only public on management.server.port, which isn't published
+    // with the app port. If the actuator is ever served on the app port, they need a token like everything else.
+    private RequestMatcher unauthenticatedActuatorRequests() {
+        return request -> isManagementPort(request.getLocalPort(), serverPort, managementPort)
+                && HttpMethod.GET.matches(request.getMethod())
+                && UNAUTHENTICATED_ACTUATOR_PATHS.contains(request.getRequestURI());
+    }
+
+    // Also used by ReactiveSecurityConfig.
+    public static boolean isManagementPort(int localPort, int serverPort, int managementPort) {
+        return managementPort > 0 && managementPort != serverPort && localPort == managementPort;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
 
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+
+        source.registerCorsConfiguration("/**", corsConfiguration());
+        return source;
+    }
+
+    // Shared with the reactive stack (ReactiveSecurityConfig) so both serve the same origins.
+    public static CorsConfiguration corsConfiguration() {
+
         CorsConfiguration configuration = new CorsConfiguration();
 
         // Define your CORS rules
@@ -58,13 +102,11 @@ public class SecurityConfig {
                 )
         );
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-None-Match"));
+        // Lets polling clients read the ETag and send it back for a 304, and see when to retry after a 429.
+        configuration.setExposedHeaders(List.of("ETag", "Retry-After"));
         configuration.setAllowCredentials(true);
-
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-
-        source.registerCorsConfiguration("/**", configuration);
-        return source;
+        return configuration;
     }
 
 }
@@ -0,0 +1,55 @@
+package com.project.invoiceGeneratorApi.controller;
+
+import com.project.invoiceGeneratorApi.asset.AssetStore;
+import com.project.invoiceGeneratorApi.asset.StoredAsset;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Serves content-addressed invoice images. An asset id is the SHA-256 of its bytes, so the
+// response for a given URL can never change: it gets a strong ETag and may be cached forever.
+// The ids are unguessable, so assets are public and work in plain <img> tags.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/assets")
+@RequiredArgsConstructor
+public class AssetController {
+
+    private final AssetStore assetStore;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> getAsset(@PathVariable String id,
+                                             @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) throws IOException {
+        String etag = "\"" + id + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+        // Any revalidation of an existing id is a hit by definition; skip the store lookup.
+        if (etag.equals(ifNoneMatch) && AssetStore.isValidId(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        StoredAsset asset = assetStore.get(id).orElse(null);
+        if (asset == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(asset.mediaType())
+                .header("X-Content-Type-Options", "nosniff")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
+                .contentLength(asset.length())
+                .body(new InputStreamResource(asset.content().getInputStream()));
+    }
+}
@@ -1,90 +1,55 @@
 package com.project.invoiceGeneratorApi.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.project.invoiceGeneratorApi.entity.User;
-import com.project.invoiceGeneratorApi.service.UserService;
+import com.project.invoiceGeneratorApi.security.SvixWebhookVerifier;
+import com.project.invoiceGeneratorApi.service.ClerkWebhookService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/webhooks")
 @RequiredArgsConstructor
+@Slf4j
 public class ClerkWebhookController {
 
-    @Value("${clerk.webhook.secret}")
-    private String webhookSecret;
-
-    private final UserService userService;
+    private final SvixWebhookVerifier webhookVerifier;
+    private final ClerkWebhookService clerkWebhookService;
+    private final ObjectMapper objectMapper;
 
+    // Only records the event; it is applied to the users collection in the background.
+    // Any 2xx stops Svix from retrying, so a redelivered event is acknowledged as well.
     @PostMapping("/clerk")
     public ResponseEntity<?> handleClerkWebhook(@RequestHeader("svix-id") String svixId,
                                                 @RequestHeader("svix-timestamp") String svixTimestamp,
                                                 @RequestHeader("svix-signature") String svixSignature,
                                                 @RequestBody String payload) {
 
-        try {
-            verifyWebhookSignature(svixId, svixTimestamp, svixSignature, payload);
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode rootNode = mapper.readTree(payload);
-            String eventType = rootNode.path("type").asText();
-
-            switch (eventType) {
-                case "user.created":
-                    handleUserCreated(rootNode.path("data"));
-                    break;
-                case "user.updated":
-                    handleUserUpdated(rootNode.path("data"));
-                    break;
-                case "user.deleted":
-                    handleUserDeleted(rootNode.path("data"));
-                    break;
-            }
+        // Checked before the event is stored: the queue must only ever hold events Clerk sent.
+        if (!webhookVerifier.verify(svixId, svixTimestamp, svixSignature, payload)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid webhook signature.");
+        }
 
+        try {
+            JsonNode rootNode = objectMapper.readTree(payload);
+            clerkWebhookService.enqueue(svixId, svixTimestamp, rootNode);
             return ResponseEntity.ok().build();
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, e.getMessage());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // Retrying a malformed payload won't fix it.
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (DataAccessException e) {
+            // Not stored: let Svix deliver it again later.
+            log.error("Could not store Clerk webhook {}: {}", svixId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Webhook could not be stored.");
         }
     }
 
-    private void handleUserDeleted(JsonNode data) {
-
-        String clerkId = data.path("id").asText();
-        userService.deleteAccount(clerkId);
-    }
-
-    private void handleUserUpdated(JsonNode data) {
-
-        String clerkId = data.path("id").asText();
-        User existingUser = userService.getAccountByClerkId(clerkId);
-
-        existingUser.setEmail(data.path("email_addresses").path(0).path("email_address").asText());
-        existingUser.setFirstName(data.path("first_name").asText());
-        existingUser.setLastName(data.path("last_name").asText());
-        existingUser.setPhotoUrl(data.path("image_url").asText());
-        userService.saveOrUpdateuser(existingUser);
-    }
-
-    private void handleUserCreated(JsonNode data) {
-
-        User newUser = User.builder()
-                .clerkId(data.path("id").asText())
-                .email(data.path("email_addresses").path(0).path("email_address").asText())
-                .firstName(data.path("first_name").asText())
-                .lastName(data.path("last_name").asText())
-                .build();
-
-        userService.saveOrUpdateuser(newUser);
-    }
-
-    private boolean verifyWebhookSignature(String svixId, String svixTimestamp, String svixSignature, String payload) {
-        //TODO: verify signature -> later do it.
-        return true;
-    }
-
 }
@@ -0,0 +1,49 @@
+package com.project.invoiceGeneratorApi.controller;
+
+import com.project.invoiceGeneratorApi.entity.Contact;
+import com.project.invoiceGeneratorApi.service.ContactService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Locale;
+
+// The user's directory of companies and customers, filled from the invoices they save.
+// Send { "billing": { "contactId": "..." } } in an invoice to reuse an entry.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/contacts")
+@RequiredArgsConstructor
+public class ContactController {
+
+    private final ContactService contactService;
+
+    // Autocomplete: entries of the kind whose name starts with q (case- and accent-insensitive).
+    @GetMapping
+    public ResponseEntity<List<Contact>> suggest(@RequestParam(defaultValue = "customer") String kind,
+                                                 @RequestParam(defaultValue = "") String q,
+                                                 @RequestParam(defaultValue = "" + ContactService.DEFAULT_SUGGESTIONS) int limit,
+                                                 Authentication authentication) {
+        try {
+            Contact.Kind contactKind = Contact.Kind.valueOf(kind.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(contactService.autocomplete(authentication.getName(), contactKind, q, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid kind or search text.");
+        }
+    }
+
+    // Invoices keep their snapshot of the entry; only future autocomplete is affected.
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> removeContact(@PathVariable String id, Authentication authentication) {
+        if (!contactService.remove(authentication.getName(), id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact Not Found: " + id);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
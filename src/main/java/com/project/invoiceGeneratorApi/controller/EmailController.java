@@ -1,40 +1,121 @@
 package com.project.invoiceGeneratorApi.controller;
 
-import com.project.invoiceGeneratorApi.service.EmailService;
-import jakarta.mail.MessagingException;
+import com.project.invoiceGeneratorApi.dto.CampaignRecipient;
+import com.project.invoiceGeneratorApi.dto.EmailCampaignResponse;
+import com.project.invoiceGeneratorApi.dto.EmailJobStatus;
+import com.project.invoiceGeneratorApi.service.AttachmentStore;
+import com.project.invoiceGeneratorApi.service.EmailQueueService;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
 import java.io.IOException;
+import java.net.URI;
+import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("api/emails")
 @RequiredArgsConstructor
+@Slf4j
 //@CrossOrigin("*")
 public class EmailController {
 
-    private final EmailService emailService;
+    private final EmailQueueService emailQueueService;
 
+    // Queues the email and returns 202 right away; delivery happens on the email workers.
+    // Either upload the PDF as "file", or pass "invoiceId" to have the stored invoice rendered server-side.
+    // Poll the returned Location (GET /api/emails/jobs/{id}) for the delivery status.
     @PostMapping("/sendInvoice")
-    public ResponseEntity<String> sendInvoice(@RequestPart("file") MultipartFile file,
-                                              @RequestPart("email") String customerEmail) {
+    public ResponseEntity<?> sendInvoice(@RequestPart(value = "file", required = false) MultipartFile file,
+                                         @RequestPart(value = "invoiceId", required = false) String invoiceId,
+                                         @RequestPart("email") String customerEmail,
+                                         Authentication authentication) {
 
-        // Validation: Check if the file and email are present before proceeding.
-        if (file.isEmpty() || customerEmail.isEmpty()) {
+        // Validation: Check if an attachment source and email are present before proceeding.
+        boolean hasFile = file != null && !file.isEmpty();
+        boolean hasInvoiceId = invoiceId != null && !invoiceId.isBlank();
+        if ((!hasFile && !hasInvoiceId) || customerEmail.isEmpty()) {
             return ResponseEntity.badRequest().body("File or email cannot be empty.");
         }
+        // Same check as campaign recipients; a bad address would only fail later, on every retry.
+        try {
+            new InternetAddress(customerEmail, true).validate();
+        } catch (AddressException e) {
+            return ResponseEntity.badRequest().body("Invalid email address.");
+        }
+
+        try {
+            EmailJobStatus job = hasFile
+                    ? emailQueueService.enqueueInvoiceEmail(authentication.getName(), customerEmail, file)
+                    : emailQueueService.enqueueStoredInvoiceEmail(authentication.getName(), customerEmail, invoiceId);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/emails/jobs/" + job.id()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            // Only "Invoice Not Found" is a 404; anything else is wrong with the request.
+            HttpStatus status = e.getMessage() != null && e.getMessage().startsWith("Invoice Not Found")
+                    ? HttpStatus.NOT_FOUND
+                    : HttpStatus.BAD_REQUEST;
+            throw new ResponseStatusException(status, e.getMessage());
+        } catch (AttachmentStore.AttachmentBudgetExceededException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (IOException e) {
+            log.error("Failed to queue invoice email: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to queue invoice email.");
+        }
+    }
+
+    // Bulk send for month-end runs. The "recipients" part is a JSON array of
+    // {"email": ..., "attachment": "<name of the file part>"} or {"email": ..., "invoiceId": ...};
+    // every other part is a file.
+    // All valid recipients are queued at once and delivered by the email workers in batches.
+    @PostMapping("/campaigns")
+    public ResponseEntity<EmailCampaignResponse> sendCampaign(@RequestPart("recipients") List<CampaignRecipient> recipients,
+                                                              MultipartHttpServletRequest request,
+                                                              Authentication authentication) {
+        if (recipients.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Recipients cannot be empty.");
+        }
 
         try {
-            emailService.sendInvoiceEmail(customerEmail, file);
-            return ResponseEntity.ok("Invoice Sent Successfully.");
-        } catch (MessagingException | IOException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to send invoice.");
+            EmailCampaignResponse response = emailQueueService.enqueueCampaign(authentication.getName(), recipients, request.getFileMap());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/emails/campaigns/" + response.campaignId()))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (AttachmentStore.AttachmentBudgetExceededException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (IOException e) {
+            log.error("Failed to queue campaign: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to queue campaign.");
         }
     }
 
+    @GetMapping("/campaigns/{id}")
+    public ResponseEntity<List<EmailJobStatus>> getCampaignStatus(@PathVariable String id, Authentication authentication) {
+        List<EmailJobStatus> statuses = emailQueueService.findCampaignStatus(id, authentication.getName());
+        if (statuses.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Campaign Not Found: " + id);
+        }
+        return ResponseEntity.ok(statuses);
+    }
 
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<EmailJobStatus> getJobStatus(@PathVariable String id, Authentication authentication) {
+        return emailQueueService.findStatus(id, authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Email Job Not Found: " + id));
+    }
 
 }
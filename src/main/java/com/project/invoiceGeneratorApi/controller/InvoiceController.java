@@ -1,25 +1,57 @@
 package com.project.invoiceGeneratorApi.controller;
 
+import com.project.invoiceGeneratorApi.dto.InvoiceAnalytics;
+import com.project.invoiceGeneratorApi.dto.InvoiceBatchDelete;
+import com.project.invoiceGeneratorApi.dto.InvoiceBatchResult;
+import com.project.invoiceGeneratorApi.dto.InvoicePatch;
+import com.project.invoiceGeneratorApi.dto.InvoiceSearch;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummaryPage;
 import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.dto.RenderedInvoice;
+import com.project.invoiceGeneratorApi.service.InvoiceAnalyticsService;
+import com.project.invoiceGeneratorApi.service.InvoiceBatchService;
+import com.project.invoiceGeneratorApi.service.InvoiceExportService;
+import com.project.invoiceGeneratorApi.service.InvoicePdfService;
 import com.project.invoiceGeneratorApi.service.InvoiceService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController      // Marks this class as a REST controller, capable of handling HTTP requests.
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor      // Lombok annotation for constructor injection (same as in service).
 @RequestMapping("/api/invoices")   //  Base URL path for all endpoints in this controller. All routes will start with /api/invoices.
 @Slf4j
 public class InvoiceController {
 
+    // Invoices are per user: browsers may keep them but must check the ETag before reusing them.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     // Inject InvoiceService into the controller.
     private final InvoiceService invoiceService;
+    private final InvoiceExportService invoiceExportService;
+    private final InvoicePdfService invoicePdfService;
+    private final InvoiceAnalyticsService invoiceAnalyticsService;
+    private final InvoiceBatchService invoiceBatchService;
 
     @PostMapping
     // @RequestBody: Spring automatically converts the JSON request body into an Invoice Java object.
@@ -32,24 +64,186 @@ public class InvoiceController {
         invoice.setClerkId(authenticatedClerkId);
 
         // Call the service layer to save the invoice.
-        Invoice savedInvoice = invoiceService.saveInvoice(invoice);
+        Invoice savedInvoice;
+        try {
+            savedInvoice = invoiceService.saveInvoice(invoice);
+        } catch (OptimisticLockingFailureException e) {
+            // Someone else saved this invoice after the version the client started from.
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Invoice was modified by another request. Reload and try again.");
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
 
         //  Return a ResponseEntity with HTTP status OK (200) and the saved Invoice object in the body.
         // The savedInvoice object will include the '_id' generated by MongoDB if it was a new invoice.
         return ResponseEntity.ok(savedInvoice);
     }
 
+    // Conditional GET: a client that sends back the ETag of its last response gets a bodyless
+    // 304 until one of its invoices changes, without a single invoice being read.
     @GetMapping
-    public ResponseEntity<List<Invoice>> fetchInvoices(Authentication authentication) {
+    public ResponseEntity<List<Invoice>> fetchInvoices(Authentication authentication, WebRequest request) {
         String clerkId = authentication.getName();
-        log.info("Fetching invoices for clerkId: {}", clerkId);
+
+        // Tag before reading: a write racing with the read makes the tag older than the body,
+        // so the next poll fetches again rather than keeping a stale list.
+        String eTag = invoiceService.invoicesETag(clerkId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        log.debug("Fetching invoices for clerkId: {}", clerkId);
         List<Invoice> invoices = invoiceService.fetchInvoices(clerkId);
-        log.info("Returning {} invoices for clerkId: {}", invoices.size(), clerkId);
-        log.debug("Invoices data: {}", invoices); // Log the actual list content
-        return ResponseEntity.ok(invoices);
+        log.debug("Returning {} invoices for clerkId: {}", invoices.size(), clerkId);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .body(invoices);
         //return ResponseEntity.ok(invoiceService.fetchInvoices(authentication.getName()));
     }
 
+    // Cursor-paginated listing of lightweight invoice summaries for the dashboard.
+    // Pass the nextCursor of the previous response to get the following page.
+    @GetMapping("/summaries")
+    public ResponseEntity<InvoiceSummaryPage> fetchInvoiceSummaries(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "" + InvoiceService.DEFAULT_PAGE_SIZE) int size,
+                                                                    @RequestParam(defaultValue = "desc") String sort,
+                                                                    Authentication authentication) {
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(sort);
+            return ResponseEntity.ok(invoiceService.fetchInvoiceSummaries(authentication.getName(), cursor, size, direction));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor or sort order.");
+        }
+    }
+
+    // Search by text, customer, number and date ranges; newest first, paginated like /summaries.
+    @GetMapping("/search")
+    public ResponseEntity<InvoiceSummaryPage> searchInvoices(@RequestParam(required = false) String q,
+                                                             @RequestParam(required = false) String customer,
+                                                             @RequestParam(required = false) String number,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "" + InvoiceService.DEFAULT_PAGE_SIZE) int size,
+                                                             Authentication authentication) {
+        InvoiceSearch search = new InvoiceSearch(q, customer, number, from, to, dueFrom, dueTo);
+        try {
+            return ResponseEntity.ok(invoiceService.searchInvoices(authentication.getName(), search, cursor, size));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Dashboard stats: revenue per month for the last 'months' months, overdue totals and the
+    // customers with the highest revenue. Served from pre-aggregated rollups.
+    @GetMapping("/analytics")
+    public ResponseEntity<InvoiceAnalytics> fetchAnalytics(@RequestParam(defaultValue = "12") int months,
+                                                           @RequestParam(defaultValue = "10") int top,
+                                                           Authentication authentication) {
+        return ResponseEntity.ok(invoiceAnalyticsService.getAnalytics(authentication.getName(), months, top));
+    }
+
+    // Streams the user's entire invoice history as NDJSON (default) or CSV.
+    // The body is written from a Mongo cursor on an async thread, so memory stays constant.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(@RequestParam(defaultValue = "ndjson") String format,
+                                                                Authentication authentication) {
+        // Resolve the user now; the security context is not available on the streaming thread.
+        String clerkId = authentication.getName();
+
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices.csv\"")
+                    .body(out -> invoiceExportService.writeCsv(clerkId, out));
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices.ndjson\"")
+                    .body(out -> invoiceExportService.writeNdjson(clerkId, out));
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Invoice> fetchInvoice(@PathVariable String id, Authentication authentication, WebRequest request) {
+        String clerkId = authentication.getName();
+        String eTag = invoiceService.invoiceETag(clerkId, id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice Not Found: " + id));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return invoiceService.fetchInvoice(clerkId, id)
+                .map(invoice -> ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(invoice))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice Not Found: " + id));
+    }
+
+    // Renders the stored invoice as a PDF using its template. Unchanged invoices are served from cache.
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<byte[]> downloadInvoicePdf(@PathVariable String id, Authentication authentication) {
+        try {
+            RenderedInvoice pdf = invoicePdfService.renderInvoice(authentication.getName(), id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice Not Found: " + id));
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + pdf.fileName() + "\"")
+                    .body(pdf.content());
+        } catch (InvoicePdfService.RenderUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    // Partial update: only the fields in the patch are written. 409 if the invoice has a newer
+    // version than the one in the patch.
+    @PatchMapping("/{id}")
+    public ResponseEntity<Invoice> patchInvoice(@PathVariable String id, @RequestBody InvoicePatch patch,
+                                                Authentication authentication) {
+        try {
+            return invoiceService.patchInvoice(authentication.getName(), id, patch)
+                    .map(ResponseEntity::ok)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice Not Found: " + id));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    // Creates many invoices at once from a JSON array. Each invoice gets its own result; one
+    // invalid invoice doesn't fail the others.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<InvoiceBatchResult> createInvoices(@RequestBody List<Invoice> invoices, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(invoiceBatchService.createAll(authentication.getName(), invoices));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Same as above for newline-delimited JSON, read as a stream: suited to large imports.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<InvoiceBatchResult> importInvoices(HttpServletRequest request, Authentication authentication) throws IOException {
+        return ResponseEntity.ok(invoiceBatchService.importNdjson(authentication.getName(), request.getInputStream()));
+    }
+
+    @PostMapping("/batch/delete")
+    public ResponseEntity<InvoiceBatchResult> removeInvoices(@RequestBody InvoiceBatchDelete request, Authentication authentication) {
+        if (request.ids() == null || request.ids().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No invoice ids given.");
+        }
+        try {
+            return ResponseEntity.ok(invoiceBatchService.deleteAll(authentication.getName(), request.ids()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     //designed to handle requests for deleting a specific invoice.
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> removeInvoice(@PathVariable String id, Authentication authentication) {
@@ -0,0 +1,48 @@
+package com.project.invoiceGeneratorApi.controller;
+
+import com.project.invoiceGeneratorApi.dto.InvoiceScheduleRequest;
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+import com.project.invoiceGeneratorApi.service.InvoiceScheduleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+// Recurring invoices: each schedule re-issues a copy of one of the user's invoices
+// weekly, monthly, quarterly or yearly, optionally emailing every copy.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/schedules")
+@RequiredArgsConstructor
+public class InvoiceScheduleController {
+
+    private final InvoiceScheduleService invoiceScheduleService;
+
+    @PostMapping
+    public ResponseEntity<InvoiceSchedule> createSchedule(@RequestBody InvoiceScheduleRequest request, Authentication authentication) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(invoiceScheduleService.create(authentication.getName(), request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<InvoiceSchedule>> fetchSchedules(Authentication authentication) {
+        return ResponseEntity.ok(invoiceScheduleService.findSchedules(authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> removeSchedule(@PathVariable String id, Authentication authentication) {
+        if (!invoiceScheduleService.remove(authentication.getName(), id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Schedule Not Found: " + id);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
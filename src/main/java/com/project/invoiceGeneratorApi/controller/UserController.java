@@ -3,11 +3,14 @@ package com.project.invoiceGeneratorApi.controller;
 import com.project.invoiceGeneratorApi.entity.User;
 import com.project.invoiceGeneratorApi.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
@@ -28,6 +31,11 @@ public class UserController {
         userToSave.setPhotoUrl(userData.getPhotoUrl());
 
         // The service layer will handle whether to create or update based on this clerkId
-        return userService.saveOrUpdateuser(userToSave);
+        try {
+            return userService.saveOrUpdateuser(userToSave);
+        } catch (IllegalStateException e) {
+            // Deleted at Clerk; the account can't be recreated with the same id.
+            throw new ResponseStatusException(HttpStatus.GONE, e.getMessage());
+        }
     }
 }
@@ -0,0 +1,18 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// PURPOSE: One entry of a bulk email campaign request: who gets the email and either
+// the name of the multipart part that holds their attachment, or the id of a stored
+// invoice to render and attach.
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CampaignRecipient {
+    private String email;
+    private String attachment;
+    private String invoiceId;
+}
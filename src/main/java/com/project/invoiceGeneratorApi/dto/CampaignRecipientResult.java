@@ -0,0 +1,13 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+
+// PURPOSE: Outcome of queueing one campaign recipient. Rejected recipients have no jobId
+// and carry the validation error instead.
+
+public record CampaignRecipientResult(String email, String jobId, EmailJob.Status status, String error) {
+
+    public static CampaignRecipientResult rejected(String email, String error) {
+        return new CampaignRecipientResult(email, null, null, error);
+    }
+}
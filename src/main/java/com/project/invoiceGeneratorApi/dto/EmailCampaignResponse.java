@@ -0,0 +1,8 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import java.util.List;
+
+// PURPOSE: Returned when a campaign is queued; one result per requested recipient, in request order.
+
+public record EmailCampaignResponse(String campaignId, int queued, int rejected, List<CampaignRecipientResult> results) {
+}
@@ -0,0 +1,17 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+
+import java.time.Instant;
+
+// PURPOSE: What a client may see about a queued email. Also used as a Mongo projection,
+// so reading a job's status never loads its attachment.
+
+public record EmailJobStatus(String id,
+                             String toEmail,
+                             EmailJob.Status status,
+                             int attempts,
+                             String lastError,
+                             Instant createdAt,
+                             Instant sentAt) {
+}
@@ -0,0 +1,22 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import java.util.List;
+
+// PURPOSE: Dashboard figures for one user. Revenue is the sum of invoice totals (tax included).
+// "Overdue" means the due date has passed; invoices don't track payment yet.
+
+public record InvoiceAnalytics(long invoiceCount,
+                               double totalRevenue,
+                               List<MonthlyRevenue> revenueByMonth,
+                               Overdue overdue,
+                               List<CustomerRevenue> topCustomers) {
+
+    public record MonthlyRevenue(String month, long invoiceCount, double total) {
+    }
+
+    public record Overdue(long invoiceCount, double total) {
+    }
+
+    public record CustomerRevenue(String name, long invoiceCount, double total) {
+    }
+}
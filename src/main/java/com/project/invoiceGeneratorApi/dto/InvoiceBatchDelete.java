@@ -0,0 +1,8 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import java.util.List;
+
+// PURPOSE: Request body of POST /api/invoices/batch/delete.
+
+public record InvoiceBatchDelete(List<String> ids) {
+}
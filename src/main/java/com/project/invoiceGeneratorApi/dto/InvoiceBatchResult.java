@@ -0,0 +1,22 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import java.util.List;
+
+// PURPOSE: Response of the batch create/import/delete endpoints. 'results' has one entry per
+// submitted invoice (or id), in request order.
+
+public record InvoiceBatchResult(int succeeded, int failed, List<Item> results) {
+
+    public enum Status { CREATED, DELETED, REJECTED, NOT_FOUND, FAILED }
+
+    // 'index' is the position in the request (the line number minus one for NDJSON).
+    public record Item(int index, String id, Status status, String error) {
+    }
+
+    public static InvoiceBatchResult of(List<Item> results) {
+        int succeeded = (int) results.stream()
+                .filter(item -> item.status() == Status.CREATED || item.status() == Status.DELETED)
+                .count();
+        return new InvoiceBatchResult(succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,31 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// PURPOSE: Keyset position (createdAt, id) of the last invoice on a page.
+// It travels to the client as an opaque URL-safe Base64 string.
+
+public record InvoiceCursor(Instant createdAt, String id) {
+
+    public static InvoiceCursor of(InvoiceSummary summary) {
+        return new InvoiceCursor(summary.getCreatedAt(), summary.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for anything that was not produced by encode().
+    public static InvoiceCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        Instant createdAt = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator)));
+        return new InvoiceCursor(createdAt, raw.substring(separator + 1));
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// PURPOSE: A partial update of one invoice. 'version' is the version the client last saw;
+// 'set' maps field paths (e.g. "title", "billing.name", "invoice.dueDate") to new values.
+// At most one of addItems / updateItems / removeItemIds may be used per patch, since MongoDB
+// can't modify the items array in more than one way in a single update.
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoicePatch {
+    private Long version;
+    private Map<String, Object> set;
+    private List<Invoice.Item> addItems;
+    private List<Invoice.Item> updateItems;
+    private List<String> removeItemIds;
+}
@@ -0,0 +1,10 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+
+import java.time.LocalDate;
+
+// Body of POST /api/schedules. Only invoiceId and frequency are required; startOn defaults to today.
+public record InvoiceScheduleRequest(String invoiceId, InvoiceSchedule.Frequency frequency, LocalDate startOn,
+                                     Integer dueInDays, String emailTo, Integer endAfter) {
+}
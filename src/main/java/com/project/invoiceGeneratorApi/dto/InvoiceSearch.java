@@ -0,0 +1,18 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import java.time.LocalDate;
+
+// PURPOSE: Filters of GET /api/invoices/search. Every field is optional; the ones given are
+// combined with AND.
+//   q        - words to find in the title, number, customer name or item names/descriptions
+//   customer - billing name prefix (case-sensitive, so it can use the index)
+//   number   - exact invoice number
+//   from/to, dueFrom/dueTo - inclusive ranges on the invoice date and due date
+
+public record InvoiceSearch(String q, String customer, String number,
+                            LocalDate from, LocalDate to, LocalDate dueFrom, LocalDate dueTo) {
+
+    public boolean hasText() {
+        return q != null && !q.isBlank();
+    }
+}
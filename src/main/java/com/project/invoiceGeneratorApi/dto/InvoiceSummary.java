@@ -0,0 +1,27 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// PURPOSE: Lightweight view of an invoice for dashboard listings.
+// Carries none of the items, logo or address blocks of the full document.
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceSummary {
+    private String id;
+    private String title;
+    private String number;
+    private String date;
+    private String dueDate;
+    private double total;
+    private String thumbnailUrl;
+    private String thumbnailAssetId;
+    private Instant createdAt;
+}
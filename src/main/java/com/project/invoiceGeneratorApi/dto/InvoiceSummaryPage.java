@@ -0,0 +1,19 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// PURPOSE: One page of invoice summaries plus the opaque cursor for the next page.
+// nextCursor is null once the last page has been returned.
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceSummaryPage {
+    private List<InvoiceSummary> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,6 @@
+package com.project.invoiceGeneratorApi.dto;
+
+// PURPOSE: A rendered invoice PDF and the file name to present it under.
+
+public record RenderedInvoice(String fileName, byte[] content) {
+}
@@ -0,0 +1,69 @@
+package com.project.invoiceGeneratorApi.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.Locale;
+
+// PURPOSE: One entry of a user's directory of companies (who they bill as) and customers (who
+// they bill). Entries are created from the invoices the user saves and deduplicated by
+// normalized name and phone, so "ACME  Corp" / "+91 98765-43210" and "acme corp" /
+// "919876543210" are the same customer. Invoices reference an entry and keep a snapshot of it.
+
+@Data
+@Document(collection = "contacts")
+// Deduplication key, and prefix autocomplete: equality on clerkId and kind, then an anchored
+// range on normalizedName, already in the order results are returned.
+@CompoundIndex(name = "clerkId_kind_name_phone", def = "{'clerkId': 1, 'kind': 1, 'normalizedName': 1, 'normalizedPhone': 1}", unique = true)
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Contact {
+
+    public enum Kind {
+        COMPANY,    // the user's own business details (Invoice.company)
+        CUSTOMER    // billing and shipping parties (Invoice.billing, Invoice.shipping)
+    }
+
+    @Id
+    private String id;
+
+    @JsonIgnore
+    private String clerkId;
+    private Kind kind;
+    private String name;
+    private String phone;
+    private String address;   // the most recently used address for this name and phone
+
+    @JsonIgnore
+    private String normalizedName;
+    @JsonIgnore
+    private String normalizedPhone;
+
+    private long useCount;
+    private Instant lastUsedAt;
+
+    private Instant createdAt;
+
+    // Lowercase, accents and compatibility forms folded, whitespace collapsed.
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        return folded.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Digits only: formatting and the leading '+' don't make a different number.
+    public static String normalizePhone(String phone) {
+        return phone == null ? "" : phone.replaceAll("\\D", "");
+    }
+}
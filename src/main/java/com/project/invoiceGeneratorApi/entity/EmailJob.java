@@ -0,0 +1,59 @@
+package com.project.invoiceGeneratorApi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// PURPOSE: One queued invoice email (the outbox). Written by the API, picked up and sent by
+// EmailDeliveryWorker. Either the job points at an uploaded attachment kept in GridFS, or it
+// names a stored invoice that the worker renders to PDF at send time.
+
+@Data
+@Document(collection = "email_jobs")
+// Workers look for due PENDING jobs and for SENDING jobs whose lease ran out.
+@CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}")
+// Per-recipient results of a bulk campaign.
+@CompoundIndex(name = "clerkId_campaignId", def = "{'clerkId': 1, 'campaignId': 1}", sparse = true)
+// Lets the worker tell when the last job using an attachment is done with it.
+@CompoundIndex(name = "attachmentFileId_status", def = "{'attachmentFileId': 1, 'status': 1}", sparse = true)
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailJob {
+
+    public enum Status {
+        PENDING,   // waiting for (another) delivery attempt
+        SENDING,   // claimed by a worker until lockedUntil
+        SENT,
+        FAILED     // gave up after the maximum number of attempts
+    }
+
+    @Id
+    private String id;
+
+    private String clerkId;
+    private String campaignId;   // set when the job was queued as part of a bulk campaign
+    private String toEmail;
+    private String invoiceId;    // set instead of an attachment when the PDF is rendered server-side
+    private String attachmentName;
+    private String attachmentContentType;
+    private String attachmentFileId;   // GridFS id; may be shared by several jobs of one campaign
+
+    private Status status;
+    private int attempts;
+    private String lastError;
+    private Instant nextAttemptAt;
+    private String claimToken;   // identifies the claim that set lockedUntil
+    private Instant lockedUntil;
+
+    @CreatedDate
+    private Instant createdAt;
+    private Instant sentAt;
+}
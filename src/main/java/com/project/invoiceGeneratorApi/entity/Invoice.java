@@ -1,22 +1,55 @@
 package com.project.invoiceGeneratorApi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Document(collection = "invoices")
+// Backs the keyset-paginated listing: equality on clerkId, then (createdAt, _id) in either direction.
+@CompoundIndex(name = "clerkId_createdAt_id", def = "{'clerkId': 1, 'createdAt': -1, '_id': -1}")
+// Collection version behind the ETag of GET /api/invoices: count and newest lastUpdatedAt per user.
+@CompoundIndex(name = "clerkId_lastUpdatedAt", def = "{'clerkId': 1, 'lastUpdatedAt': -1}")
+// Overdue totals: equality on clerkId, range on the parsed due date.
+@CompoundIndex(name = "clerkId_dueOn", def = "{'clerkId': 1, 'dueOn': 1}")
+// Search (InvoiceRepositoryImpl.searchSummaries): date range, exact number, customer prefix.
+@CompoundIndex(name = "clerkId_issuedOn", def = "{'clerkId': 1, 'issuedOn': 1}")
+@CompoundIndex(name = "clerkId_number", def = "{'clerkId': 1, 'invoice.number': 1}")
+@CompoundIndex(name = "clerkId_billingName", def = "{'clerkId': 1, 'billing.name': 1}")
+// At most one invoice per occurrence of a recurring schedule, even if two pods issue it.
+@CompoundIndex(name = "scheduleId_occurrence", def = "{'scheduleId': 1, 'occurrence': 1}", unique = true,
+        partialFilter = "{ 'scheduleId': { '$exists': true } }")
+// Free-text search. The clerkId prefix keeps every text lookup inside one user's invoices.
+@CompoundIndex(name = "clerkId_text", def = "{'clerkId': 1, 'title': 'text', 'invoice.number': 'text', "
+        + "'billing.name': 'text', 'items.name': 'text', 'items.description': 'text'}")
 public class Invoice {
 
+    // Storage layout written by the current code; InvoiceSchemaMigrator upgrades older documents.
+    public static final int SCHEMA_VERSION = 3;
+
     @Id
     private String id;
 
+    // Incremented on every write. A save or patch carrying an older version is rejected
+    // instead of silently overwriting someone else's edit.
+    @Version
+    private Long version;
+
     private String clerkId;
     private Company company;
     private Billing billing;
@@ -24,20 +57,107 @@ public class Invoice {
     private InvoiceDetails invoice;
     private List<Item> items;
     private String notes;
-    private String logo;
+    private String logo;          // only set on legacy documents; new logos live in the asset store
+    private String logoAssetId;   // SHA-256 of the logo in the asset store
     private double tax;
 
+    // Derived at write time by computeDerivedFields(), so reads and aggregations don't have
+    // to sum the items again. Null on documents written before they existed.
+    private Double subtotal;
+    private Double taxAmount;
+    private Double total;
+    private Instant issuedOn;   // invoice.date as a real date (UTC midnight), if it parses
+    private Instant dueOn;      // invoice.dueDate as a real date (UTC midnight), if it parses
+
     @CreatedDate
     private Instant createdAt;
 
     @LastModifiedDate
     private Instant lastUpdatedAt;
     private String thumbnailUrl;
+    private String thumbnailAssetId;
+
+    // Server-rendered previews of the first page: width in px -> asset id. Written only by
+    // InvoiceThumbnailWorker, and regenerated only when thumbnailHash (a hash of everything
+    // that affects the rendering) no longer matches the invoice.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Map<String, String> thumbnails;
+    @JsonIgnore
+    private String thumbnailHash;
+    @JsonIgnore
+    private Integer schemaVersion;   // missing on documents written before migrations existed
+
+    // Set on invoices issued by a recurring InvoiceSchedule: which schedule, and which of its
+    // occurrences (0 for the first).
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String scheduleId;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer occurrence;
     private String template;
     private String title;
 
+    // Sum of qty * amount over all items.
+    public double calculateSubtotal() {
+        double subtotal = 0;
+        if (items != null) {
+            for (Item item : items) {
+                subtotal += item.getQty() * item.getAmount();
+            }
+        }
+        return subtotal;
+    }
+
+    // Subtotal plus tax (stored as a percentage).
+    public double calculateTotal() {
+        double subtotal = calculateSubtotal();
+        return subtotal + subtotal * tax / 100;
+    }
+
+    // The stored total, or the computed one for documents written before totals were stored.
+    public double resolvedTotal() {
+        return total != null ? total : calculateTotal();
+    }
+
+    // Fills in the stored totals and dates from the client-editable fields. Called on every write.
+    public void computeDerivedFields() {
+        double computedSubtotal = calculateSubtotal();
+        subtotal = computedSubtotal;
+        taxAmount = computedSubtotal * tax / 100;
+        total = computedSubtotal + taxAmount;
+        issuedOn = invoice != null ? parseDate(invoice.getDate()) : null;
+        dueOn = invoice != null ? parseDate(invoice.getDueDate()) : null;
+    }
+
+    // Line items get a stable id so a PATCH can update or remove a single one.
+    public void assignItemIds() {
+        assignItemIds(items);
+    }
+
+    public static void assignItemIds(List<Item> items) {
+        if (items != null) {
+            for (Item item : items) {
+                if (item.getItemId() == null) {
+                    item.setItemId(new ObjectId().toHexString());
+                }
+            }
+        }
+    }
+
+    // The frontend sends yyyy-MM-dd, sometimes with a time part appended.
+    private static Instant parseDate(String value) {
+        if (value == null || value.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.substring(0, 10)).atStartOfDay(ZoneOffset.UTC).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     @Data
     public static class Company {
+        private String contactId;   // directory entry (Contact); the fields below are its snapshot
         private String name;
         private String phone;
         private String address;
@@ -45,6 +165,7 @@ public class Invoice {
 
     @Data
     public static class Billing {
+        private String contactId;   // see Company.contactId
         private String name;
         private String phone;
         private String address;
@@ -52,6 +173,7 @@ public class Invoice {
 
     @Data
     public static class Shipping {
+        private String contactId;   // see Company.contactId
         private String name;
         private String phone;
         private String address;
@@ -66,6 +188,7 @@ public class Invoice {
 
     @Data
     public static class Item {
+        private String itemId;   // not "id": Spring Data would map that to _id inside the array
         private String name;
         private int qty;
         private double amount;
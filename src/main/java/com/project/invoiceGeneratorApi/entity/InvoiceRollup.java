@@ -0,0 +1,49 @@
+package com.project.invoiceGeneratorApi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// PURPOSE: Pre-aggregated invoice figures for one user, kept up to date on every invoice write.
+// There is one document per (clerkId, kind, key): the user's overall totals (kind ALL), one
+// per month the invoices were issued in, and one per billing customer. Dashboards read a few
+// of these instead of scanning every invoice.
+
+@Data
+@Document(collection = "invoice_rollups")
+@CompoundIndex(name = "clerkId_kind_key", def = "{'clerkId': 1, 'kind': 1, 'key': 1}", unique = true)
+// Top customers by revenue.
+@CompoundIndex(name = "clerkId_kind_total", def = "{'clerkId': 1, 'kind': 1, 'total': -1}")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceRollup {
+
+    public enum Kind {
+        ALL,       // key is always "all"
+        MONTH,     // key is yyyy-MM
+        CUSTOMER   // key is the normalized billing name, label the name as written
+    }
+
+    public static final String ALL_KEY = "all";
+
+    @Id
+    private String id;
+
+    private String clerkId;
+    private Kind kind;
+    private String key;
+    private String label;
+    private long invoiceCount;
+    private double total;
+
+    // Set on the ALL document when the rollups were last rebuilt from the invoices. Until then
+    // incremental updates alone can't be trusted (invoices may predate the rollups).
+    private Instant rebuiltAt;
+}
@@ -0,0 +1,71 @@
+package com.project.invoiceGeneratorApi.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// PURPOSE: Re-issues a copy of one of the user's invoices at a fixed frequency. Each run
+// copies the source invoice as it is at that moment, dated for the occurrence, and can queue
+// it for email. Claimed by InvoiceScheduleWorker with a lease, like the webhook queue.
+
+@Data
+@Document(collection = "invoice_schedules")
+// The worker's claim query: active schedules that are due.
+@CompoundIndex(name = "active_nextRunAt", def = "{'active': 1, 'nextRunAt': 1}")
+@CompoundIndex(name = "clerkId_createdAt", def = "{'clerkId': 1, 'createdAt': -1}")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceSchedule {
+
+    public enum Frequency {
+        WEEKLY, MONTHLY, QUARTERLY, YEARLY
+    }
+
+    @Id
+    private String id;
+
+    @JsonIgnore
+    private String clerkId;
+    private String invoiceId;    // the invoice that is copied
+    private Frequency frequency;
+    private LocalDate startOn;   // date of the first occurrence; later ones are counted from it
+    private Integer dueInDays;   // due date of each copy, relative to its date; none when null
+    private String emailTo;      // queue each copy for email to this address, when set
+    private Integer endAfter;    // stop after this many invoices; never when null
+
+    private boolean active;
+    private int issuedCount;     // also the occurrence number of the next invoice
+    private Instant nextRunAt;
+    private String lastInvoiceId;
+    private Instant lastIssuedAt;
+    private String lastError;
+
+    @JsonIgnore
+    private String claimToken;
+    @JsonIgnore
+    private Instant lockedUntil;
+
+    @CreatedDate
+    private Instant createdAt;
+
+    // Always counted from startOn, so a schedule starting on the 31st stays on the last day of
+    // shorter months and returns to the 31st afterwards.
+    public LocalDate occurrenceDate(int occurrence) {
+        return switch (frequency) {
+            case WEEKLY -> startOn.plusWeeks(occurrence);
+            case MONTHLY -> startOn.plusMonths(occurrence);
+            case QUARTERLY -> startOn.plusMonths(3L * occurrence);
+            case YEARLY -> startOn.plusYears(occurrence);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.invoiceGeneratorApi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// PURPOSE: Progress of the online migration of one collection to a schema version. Updated
+// after every batch, so a restarted (or different) instance resumes after lastId instead of
+// starting over. The lease (owner, lockedUntil) keeps two instances from migrating at once.
+
+@Data
+@Document(collection = "schema_migrations")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SchemaMigration {
+
+    @Id
+    private String id;   // the migrated collection, e.g. "invoices"
+
+    private int targetVersion;
+    private String lastId;   // every document up to this _id has been visited in the current pass
+
+    private long migrated;
+    private long skipped;    // changed by a user while being migrated; retried in the next pass
+    private long failed;
+
+    private String owner;
+    private Instant lockedUntil;
+
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+
+    // collStats of the collection when the migration started and when it completed.
+    private Long sizeBytesBefore;
+    private Long storageBytesBefore;
+    private Long averageDocumentBytesBefore;
+    private Long sizeBytesAfter;
+    private Long storageBytesAfter;
+    private Long averageDocumentBytesAfter;
+}
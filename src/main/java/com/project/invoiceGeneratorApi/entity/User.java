@@ -27,6 +27,11 @@ public class User {
     private String firstName;
     private String lastName;
     private String photoUrl;
+    // Time of the latest Clerk webhook applied to this user; older events are ignored.
+    private Instant lastEventAt;
+    // Set by a user.deleted webhook. The document stays behind as a tombstone, so an older
+    // created/updated event arriving later can't bring the user back; reads treat it as absent.
+    private boolean deleted;
     @CreatedDate
     private Instant createdAt;
 }
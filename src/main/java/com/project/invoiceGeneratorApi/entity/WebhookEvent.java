@@ -0,0 +1,59 @@
+package com.project.invoiceGeneratorApi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// PURPOSE: One received Clerk webhook, waiting to be applied to the users collection.
+// The _id is the svix-id header, so a redelivered webhook can't be stored twice.
+// Only the user fields we keep are extracted from the payload; the rest is dropped.
+
+@Data
+@Document(collection = "webhook_events")
+// The applier looks for PENDING events and for PROCESSING events whose lease ran out.
+@CompoundIndex(name = "status_receivedAt", def = "{'status': 1, 'receivedAt': 1}")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebhookEvent {
+
+    public enum Status {
+        PENDING,     // received, not applied yet
+        PROCESSING,  // claimed by an applier until lockedUntil
+        APPLIED      // applied, or superseded by a newer event for the same user
+    }
+
+    @Id
+    private String id;   // svix-id
+
+    private String type;  // user.created, user.updated or user.deleted
+    private String clerkId;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String photoUrl;
+
+    // When the change happened at Clerk; decides which event wins for the same user.
+    private Instant occurredAt;
+
+    private Status status;
+    private String claimToken;
+    private Instant lockedUntil;
+
+    // Svix retries a webhook for a few days at most, so that's how long we need the
+    // svix-id around for deduplication.
+    @Indexed(name = "receivedAt_ttl", expireAfter = "7d")
+    private Instant receivedAt;
+    private Instant appliedAt;
+
+    public boolean isDeletion() {
+        return "user.deleted".equals(type);
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.invoiceGeneratorApi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// PURPOSE: Histogram of request body sizes per endpoint ('http.server.request.size'), so we
+// can see how big invoice payloads really are (inline logos, item counts) and spot outliers.
+// Uses the Content-Length header only; the body itself is never buffered or counted.
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class PayloadSizeMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long length = request.getContentLengthLong();
+            if (length >= 0) {
+                // The route template, not the raw path, keeps the number of series bounded.
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("http.server.request.size")
+                        .description("Size of request bodies")
+                        .baseUnit("bytes")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(length);
+            }
+        }
+    }
+}
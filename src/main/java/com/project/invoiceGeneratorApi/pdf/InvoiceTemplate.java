@@ -0,0 +1,342 @@
+package com.project.invoiceGeneratorApi.pdf;
+
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// PURPOSE: A compiled invoice layout. Everything that doesn't depend on the invoice (colors,
+// column positions, page geometry) is computed once when the template is built; render() only
+// places the invoice's own data. Instances are immutable and shared between render threads.
+
+public class InvoiceTemplate {
+
+    private static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    private static final float MARGIN = 50;
+    private static final float LINE = 14;
+    private static final float LOGO_MAX_WIDTH = 120;
+    private static final float LOGO_MAX_HEIGHT = 60;
+
+    private static final Color TEXT = new Color(33, 37, 41);
+    private static final Color MUTED = new Color(108, 117, 125);
+    private static final Color ROW_SHADE = new Color(245, 246, 248);
+
+    private final TemplateStyle style;
+
+    // Precomputed layout.
+    private final float pageWidth;
+    private final float contentRight;
+    private final float qtyRight;
+    private final float amountRight;
+    private final float itemColumnWidth;
+    private final Color headerText;
+
+    public InvoiceTemplate(TemplateStyle style) {
+        this.style = style;
+        this.pageWidth = PAGE_SIZE.getWidth();
+        this.contentRight = pageWidth - MARGIN;
+        this.amountRight = contentRight - 100;
+        this.qtyRight = amountRight - 90;
+        this.itemColumnWidth = qtyRight - 60 - MARGIN;
+        this.headerText = style.bandedHeader() ? Color.WHITE : style.accent();
+    }
+
+    public String getId() {
+        return style.id();
+    }
+
+    public void render(PDDocument document, Invoice invoice, BufferedImage logo) throws IOException {
+        try (Canvas canvas = new Canvas(document)) {
+            renderHeader(canvas, invoice, logo);
+            renderParties(canvas, invoice);
+            renderItems(canvas, invoice);
+            renderTotals(canvas, invoice);
+            renderNotes(canvas, invoice);
+        }
+    }
+
+    private void renderHeader(Canvas canvas, Invoice invoice, BufferedImage logo) throws IOException {
+        float top = canvas.y;
+
+        if (style.bandedHeader()) {
+            canvas.fill(0, top - 30, pageWidth, PAGE_SIZE.getHeight() - (top - 30), style.accent());
+        }
+        canvas.text(MARGIN, top - 20, canvas.bold, 22, "INVOICE", headerText);
+
+        if (logo != null) {
+            float scale = Math.min(LOGO_MAX_WIDTH / logo.getWidth(), LOGO_MAX_HEIGHT / logo.getHeight());
+            scale = Math.min(scale, 1f);
+            float width = logo.getWidth() * scale;
+            float height = logo.getHeight() * scale;
+            PDImageXObject image = LosslessFactory.createFromImage(canvas.document, logo);
+            canvas.content.drawImage(image, contentRight - width, top - height + 10, width, height);
+        }
+        canvas.y = top - 60;
+
+        Invoice.Company company = invoice.getCompany();
+        Invoice.InvoiceDetails details = invoice.getInvoice();
+        float blockTop = canvas.y;
+
+        if (company != null) {
+            canvas.text(MARGIN, canvas.y, canvas.bold, 13, company.getName(), TEXT);
+            canvas.y -= LINE + 2;
+            canvas.lines(MARGIN, canvas.regular, 10, MUTED, company.getPhone(), company.getAddress());
+        }
+        float leftBottom = canvas.y;
+
+        canvas.y = blockTop;
+        if (details != null) {
+            canvas.labelValueRight(contentRight, "Invoice #", details.getNumber());
+            canvas.labelValueRight(contentRight, "Date", details.getDate());
+            canvas.labelValueRight(contentRight, "Due Date", details.getDueDate());
+        }
+        canvas.y = Math.min(leftBottom, canvas.y) - LINE;
+    }
+
+    private void renderParties(Canvas canvas, Invoice invoice) throws IOException {
+        float top = canvas.y;
+        float middle = MARGIN + (contentRight - MARGIN) / 2;
+
+        Invoice.Billing billing = invoice.getBilling();
+        Invoice.Shipping shipping = invoice.getShipping();
+
+        canvas.text(MARGIN, top, canvas.bold, 11, "Bill To", style.accent());
+        canvas.y = top - LINE;
+        if (billing != null) {
+            canvas.lines(MARGIN, canvas.regular, 10, TEXT, billing.getName(), billing.getPhone(), billing.getAddress());
+        }
+        float leftBottom = canvas.y;
+
+        canvas.y = top;
+        if (shipping != null && shipping.getName() != null && !shipping.getName().isBlank()) {
+            canvas.text(middle, top, canvas.bold, 11, "Ship To", style.accent());
+            canvas.y = top - LINE;
+            canvas.lines(middle, canvas.regular, 10, TEXT, shipping.getName(), shipping.getPhone(), shipping.getAddress());
+        }
+        canvas.y = Math.min(leftBottom, canvas.y) - LINE;
+    }
+
+    private void renderItems(Canvas canvas, Invoice invoice) throws IOException {
+        renderItemHeader(canvas);
+
+        List<Invoice.Item> items = invoice.getItems() != null ? invoice.getItems() : List.of();
+        boolean shaded = false;
+        for (Invoice.Item item : items) {
+            boolean hasDescription = item.getDescription() != null && !item.getDescription().isBlank();
+            float rowHeight = hasDescription ? LINE * 2 + 4 : LINE + 6;
+
+            if (canvas.ensureSpace(rowHeight)) {
+                renderItemHeader(canvas);
+            }
+            if (shaded) {
+                canvas.fill(MARGIN, canvas.y - rowHeight + LINE - 2, contentRight - MARGIN, rowHeight, ROW_SHADE);
+            }
+            shaded = !shaded;
+
+            canvas.text(MARGIN + 4, canvas.y, canvas.regular, 10, canvas.fit(item.getName(), canvas.regular, 10, itemColumnWidth), TEXT);
+            canvas.textRight(qtyRight, canvas.y, canvas.regular, 10, String.valueOf(item.getQty()), TEXT);
+            canvas.textRight(amountRight, canvas.y, canvas.regular, 10, money(item.getAmount()), TEXT);
+            canvas.textRight(contentRight - 4, canvas.y, canvas.regular, 10, money(item.getQty() * item.getAmount()), TEXT);
+            if (hasDescription) {
+                canvas.text(MARGIN + 4, canvas.y - LINE, canvas.regular, 8, canvas.fit(item.getDescription(), canvas.regular, 8, itemColumnWidth), MUTED);
+            }
+            canvas.y -= rowHeight;
+        }
+        canvas.y -= LINE / 2;
+    }
+
+    private void renderItemHeader(Canvas canvas) throws IOException {
+        canvas.fill(MARGIN, canvas.y - 6, contentRight - MARGIN, LINE + 6, style.accent());
+        canvas.text(MARGIN + 4, canvas.y, canvas.bold, 10, "Item", Color.WHITE);
+        canvas.textRight(qtyRight, canvas.y, canvas.bold, 10, "Qty", Color.WHITE);
+        canvas.textRight(amountRight, canvas.y, canvas.bold, 10, "Amount", Color.WHITE);
+        canvas.textRight(contentRight - 4, canvas.y, canvas.bold, 10, "Total", Color.WHITE);
+        canvas.y -= LINE + 8;
+    }
+
+    private void renderTotals(Canvas canvas, Invoice invoice) throws IOException {
+        canvas.ensureSpace(LINE * 4);
+
+        double subtotal = invoice.calculateSubtotal();
+        canvas.labelValueRight(contentRight - 4, "Subtotal", money(subtotal));
+        canvas.labelValueRight(contentRight - 4, "Tax (" + trimZeros(invoice.getTax()) + "%)", money(subtotal * invoice.getTax() / 100));
+        canvas.y -= 4;
+        canvas.textRight(amountRight, canvas.y, canvas.bold, 12, "Total", style.accent());
+        canvas.textRight(contentRight - 4, canvas.y, canvas.bold, 12, money(invoice.calculateTotal()), style.accent());
+        canvas.y -= LINE * 2;
+    }
+
+    private void renderNotes(Canvas canvas, Invoice invoice) throws IOException {
+        if (invoice.getNotes() == null || invoice.getNotes().isBlank()) {
+            return;
+        }
+        canvas.ensureSpace(LINE * 3);
+        canvas.text(MARGIN, canvas.y, canvas.bold, 11, "Notes", style.accent());
+        canvas.y -= LINE;
+        for (String line : canvas.wrap(invoice.getNotes(), canvas.regular, 9, contentRight - MARGIN)) {
+            canvas.ensureSpace(LINE);
+            canvas.text(MARGIN, canvas.y, canvas.regular, 9, line, MUTED);
+            canvas.y -= LINE - 2;
+        }
+    }
+
+    private static String money(double value) {
+        return String.format("%,.2f", value);
+    }
+
+    private static String trimZeros(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    // Per-render drawing state: the current page, its content stream and the y cursor.
+    // PDFont instances keep mutable caches, so each render gets its own.
+    private static final class Canvas implements AutoCloseable {
+
+        final PDDocument document;
+        final PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        final PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        PDPageContentStream content;
+        float y;
+
+        Canvas(PDDocument document) throws IOException {
+            this.document = document;
+            newPage();
+        }
+
+        void newPage() throws IOException {
+            if (content != null) {
+                content.close();
+            }
+            PDPage page = new PDPage(PAGE_SIZE);
+            document.addPage(page);
+            content = new PDPageContentStream(document, page);
+            y = PAGE_SIZE.getHeight() - MARGIN;
+        }
+
+        // Starts a new page if 'height' doesn't fit; returns whether it did.
+        boolean ensureSpace(float height) throws IOException {
+            if (y - height < MARGIN) {
+                newPage();
+                return true;
+            }
+            return false;
+        }
+
+        void fill(float x, float bottom, float width, float height, Color color) throws IOException {
+            content.setNonStrokingColor(color);
+            content.addRect(x, bottom, width, height);
+            content.fill();
+        }
+
+        void text(float x, float baseline, PDFont font, float size, String value, Color color) throws IOException {
+            String safe = sanitize(value, font);
+            if (safe.isEmpty()) {
+                return;
+            }
+            content.beginText();
+            content.setFont(font, size);
+            content.setNonStrokingColor(color);
+            content.newLineAtOffset(x, baseline);
+            content.showText(safe);
+            content.endText();
+        }
+
+        void textRight(float right, float baseline, PDFont font, float size, String value, Color color) throws IOException {
+            String safe = sanitize(value, font);
+            text(right - width(safe, font, size), baseline, font, size, safe, color);
+        }
+
+        void labelValueRight(float right, String label, String value) throws IOException {
+            textRight(right - 110, y, bold, 10, label, MUTED);
+            textRight(right, y, regular, 10, value, TEXT);
+            y -= LINE;
+        }
+
+        // Prints each non-empty value, splitting embedded line breaks (addresses) into lines.
+        void lines(float x, PDFont font, float size, Color color, String... values) throws IOException {
+            for (String value : values) {
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                for (String line : value.split("\\R")) {
+                    text(x, y, font, size, line, color);
+                    y -= LINE - 2;
+                }
+            }
+        }
+
+        String fit(String value, PDFont font, float size, float maxWidth) throws IOException {
+            String safe = sanitize(value, font);
+            if (width(safe, font, size) <= maxWidth) {
+                return safe;
+            }
+            String ellipsis = "...";
+            int end = safe.length();
+            while (end > 0 && width(safe.substring(0, end) + ellipsis, font, size) > maxWidth) {
+                end--;
+            }
+            return safe.substring(0, end) + ellipsis;
+        }
+
+        List<String> wrap(String value, PDFont font, float size, float maxWidth) throws IOException {
+            List<String> result = new ArrayList<>();
+            for (String paragraph : value.split("\\R")) {
+                StringBuilder line = new StringBuilder();
+                for (String word : sanitize(paragraph, font).split(" ")) {
+                    String candidate = line.isEmpty() ? word : line + " " + word;
+                    if (width(candidate, font, size) > maxWidth && !line.isEmpty()) {
+                        result.add(line.toString());
+                        line = new StringBuilder(word);
+                    } else {
+                        line = new StringBuilder(candidate);
+                    }
+                }
+                result.add(line.toString());
+            }
+            return result;
+        }
+
+        private static float width(String value, PDFont font, float size) throws IOException {
+            return font.getStringWidth(value) / 1000 * size;
+        }
+
+        // The standard 14 fonts only cover WinAnsi; replace anything else instead of failing the render.
+        private static String sanitize(String value, PDFont font) {
+            if (value == null) {
+                return "";
+            }
+            StringBuilder safe = new StringBuilder(value.length());
+            value.codePoints().forEach(codePoint -> {
+                String character = new String(Character.toChars(codePoint));
+                if (Character.isISOControl(codePoint)) {
+                    safe.append(' ');
+                    return;
+                }
+                try {
+                    font.encode(character);
+                    safe.append(character);
+                } catch (IOException | IllegalArgumentException e) {
+                    safe.append('?');
+                }
+            });
+            return safe.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            content.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.project.invoiceGeneratorApi.pdf;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// PURPOSE: Holds every invoice template, compiled once at startup.
+// Unknown or missing template ids fall back to the default template.
+
+@Component
+public class InvoiceTemplateRegistry {
+
+    public static final String DEFAULT_TEMPLATE = "template1";
+
+    private final Map<String, InvoiceTemplate> templates = List.of(
+                    new TemplateStyle("template1", new Color(52, 58, 64), false),
+                    new TemplateStyle("template2", new Color(13, 110, 253), true),
+                    new TemplateStyle("template3", new Color(25, 135, 84), true),
+                    new TemplateStyle("template4", new Color(111, 66, 193), false),
+                    new TemplateStyle("template5", new Color(220, 53, 69), true))
+            .stream()
+            .map(InvoiceTemplate::new)
+            .collect(Collectors.toUnmodifiableMap(InvoiceTemplate::getId, Function.identity()));
+
+    public InvoiceTemplate resolve(String templateId) {
+        InvoiceTemplate template = templateId != null ? templates.get(templateId) : null;
+        return template != null ? template : templates.get(DEFAULT_TEMPLATE);
+    }
+}
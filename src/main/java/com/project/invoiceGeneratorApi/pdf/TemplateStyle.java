@@ -0,0 +1,9 @@
+package com.project.invoiceGeneratorApi.pdf;
+
+import java.awt.Color;
+
+// PURPOSE: The visual knobs that distinguish one invoice template from another.
+// 'id' matches the value the frontend stores in Invoice.template.
+
+public record TemplateStyle(String id, Color accent, boolean bandedHeader) {
+}
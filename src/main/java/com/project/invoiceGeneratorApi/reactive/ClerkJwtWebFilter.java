@@ -0,0 +1,69 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// PURPOSE: Reactive port of ClerkJwtAuthFilter. Same rules and status codes: no or non-Bearer
+// header passes through unauthenticated, an expired token is 401, anything else invalid is 403.
+// Not a @Component: WebFlux would otherwise also apply it outside the security chain.
+
+public class ClerkJwtWebFilter implements WebFilter {
+
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final ReactiveClerkTokenVerifier tokenVerifier;
+
+    public ClerkJwtWebFilter(ReactiveClerkTokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getPath().value().contains("/api/webhooks")) {
+            return chain.filter(exchange);
+        }
+
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer")) {
+            return chain.filter(exchange);
+        }
+
+        String token = authHeader.substring(7);
+
+        // Map verification failures to a status before continuing, so errors raised further
+        // down the chain are not mistaken for token problems.
+        return tokenVerifier.verify(token)
+                .map(verified -> new Outcome(new UsernamePasswordAuthenticationToken(verified.subject(), null, AUTHORITIES), null))
+                .onErrorResume(e -> Mono.just(new Outcome(null, statusFor(e))))
+                .flatMap(outcome -> outcome.authentication() != null
+                        ? chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(outcome.authentication()))
+                        : reject(exchange, outcome.status()));
+    }
+
+    private static HttpStatus statusFor(Throwable e) {
+        if (e instanceof ExpiredJwtException) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        return HttpStatus.FORBIDDEN;
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+
+    private record Outcome(Authentication authentication, HttpStatus status) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.asset.AssetStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Reactive variant of AssetController with the same immutable caching headers.
+// AssetStore is blocking (GridFS or local disk), so lookups run on the bounded elastic scheduler.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/assets")
+@RequiredArgsConstructor
+public class ReactiveAssetController {
+
+    private final AssetStore assetStore;
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Resource>> getAsset(@PathVariable String id,
+                                                   @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = "\"" + id + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+        if (etag.equals(ifNoneMatch) && AssetStore.isValidId(id)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build());
+        }
+
+        return Mono.fromCallable(() -> assetStore.get(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .map(asset -> {
+                    try {
+                        return ResponseEntity.ok()
+                                .eTag(etag)
+                                .cacheControl(cacheControl)
+                                .contentType(asset.mediaType())
+                                .header("X-Content-Type-Options", "nosniff")
+                                .header(HttpHeaders.CONTENT_DISPOSITION, "inline")
+                                .contentLength(asset.length())
+                                .<Resource>body(new InputStreamResource(asset.content().getInputStream()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,143 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.project.invoiceGeneratorApi.security.ClerkJwksprovider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// PURPOSE: Reactive port of ClerkJwksprovider. Keys are fetched with WebClient, so no thread
+// ever blocks on Clerk. A cached kid is answered immediately (stale keys are served while a
+// refresh runs); an unknown kid joins the single in-flight refresh, at most once per
+// MIN_REFRESH_INTERVAL.
+
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClerkJwksProvider {
+
+    private static final Duration CACHE_TTL = Duration.ofHours(1);
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebClient webClient;
+    private final String jwksUrl;
+
+    private final AtomicReference<KeySet> keySet = new AtomicReference<>(KeySet.EMPTY);
+    private final AtomicReference<Mono<KeySet>> inFlightRefresh = new AtomicReference<>();
+    // Moved forward with a CAS, so only one caller per MIN_REFRESH_INTERVAL starts a refresh.
+    private final AtomicLong lastRefreshAttempt = new AtomicLong();
+
+    // Same meters as ClerkJwksprovider.
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+
+    public ReactiveClerkJwksProvider(WebClient.Builder webClientBuilder, @Value("${clerk.jwks-url}") String jwksUrl,
+                                     MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.jwksUrl = jwksUrl;
+        this.cacheHits = meterRegistry.counter("clerk.jwks.lookups", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("clerk.jwks.lookups", "result", "miss");
+        this.refreshSuccess = Timer.builder("clerk.jwks.refresh").tag("outcome", "success").register(meterRegistry);
+        this.refreshFailure = Timer.builder("clerk.jwks.refresh").tag("outcome", "failure").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void warmUp() {
+        claimRefreshWindow();
+        refreshKeys().subscribe(keys -> { }, e -> log.warn("Initial JWKS fetch failed: {}", e.getMessage()));
+    }
+
+    public Mono<PublicKey> getPublicKey(String kid) {
+        KeySet current = keySet.get();
+        PublicKey cached = current.keys().get(kid);
+        if (cached != null) {
+            cacheHits.increment();
+            if (current.isExpired() && inFlightRefresh.get() == null && claimRefreshWindow()) {
+                refreshKeys().subscribe(keys -> { }, e -> log.warn("Background JWKS refresh failed: {}", e.getMessage()));
+            }
+            return Mono.just(cached);
+        }
+        cacheMisses.increment();
+
+        // Join the running refresh, or start one if this caller wins the refresh window.
+        Mono<KeySet> running = inFlightRefresh.get();
+        Mono<KeySet> refresh = running != null ? running : claimRefreshWindow() ? refreshKeys() : null;
+        Mono<KeySet> keys = refresh != null
+                // Keep serving the key set we have; only fail if there is nothing to serve at all.
+                ? refresh.onErrorResume(e -> keySet.get() == KeySet.EMPTY ? Mono.error(e) : Mono.just(keySet.get()))
+                : Mono.just(current);
+
+        return keys.flatMap(fresh -> {
+            if (fresh == KeySet.EMPTY) {
+                return Mono.error(new ClerkJwksprovider.FetchingKeysException("No JWKS keys available yet from URL: " + jwksUrl, null));
+            }
+            PublicKey key = fresh.keys().get(kid);
+            return key != null
+                    ? Mono.just(key)
+                    : Mono.error(new ClerkJwksprovider.KeyNotFoundException("Public key with kid: " + kid + " not found."));
+        });
+    }
+
+    // Check and update in one compareAndSet: of the callers that see the window open, one wins.
+    private boolean claimRefreshWindow() {
+        long last = lastRefreshAttempt.get();
+        long now = System.currentTimeMillis();
+        return now - last >= MIN_REFRESH_INTERVAL.toMillis() && lastRefreshAttempt.compareAndSet(last, now);
+    }
+
+    // Single-flight: everyone asking while a fetch is running subscribes to that same fetch.
+    // Callers claim the refresh window first.
+    private Mono<KeySet> refreshKeys() {
+        Mono<KeySet> existing = inFlightRefresh.get();
+        if (existing != null) {
+            return existing;
+        }
+
+        Mono<KeySet> refresh = Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    return webClient.get().uri(jwksUrl).retrieve().bodyToMono(JsonNode.class)
+                            .timeout(FETCH_TIMEOUT)
+                            .onErrorMap(e -> new ClerkJwksprovider.FetchingKeysException("Failed to fetch JWKS from URL: " + jwksUrl, e))
+                            .map(jwks -> new KeySet(ClerkJwksprovider.parseKeys(jwks), System.currentTimeMillis()))
+                            .doOnSuccess(keys -> refreshSuccess.record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                            .doOnError(e -> refreshFailure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+                })
+
+                .doOnNext(keySet::set)
+                .doFinally(signal -> inFlightRefresh.set(null))
+                .cache();
+
+        if (!inFlightRefresh.compareAndSet(null, refresh)) {
+            // Another caller started one first.
+            Mono<KeySet> winner = inFlightRefresh.get();
+            return winner != null ? winner : Mono.just(keySet.get());
+        }
+        return refresh;
+    }
+
+    private record KeySet(Map<String, PublicKey> keys, long fetchedAt) {
+
+        static final KeySet EMPTY = new KeySet(Map.of(), 0);
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - fetchedAt >= CACHE_TTL.toMillis();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.security.ClerkTokenParser;
+import com.project.invoiceGeneratorApi.security.VerificationTimers;
+import com.project.invoiceGeneratorApi.security.VerifiedToken;
+import com.project.invoiceGeneratorApi.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Reactive port of ClerkTokenVerifier. Same token cache and parser; only the key
+// lookup is asynchronous.
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClerkTokenVerifier {
+
+    private static final int TOKEN_CACHE_MAX_SIZE = 10000;
+
+    private final ReactiveClerkJwksProvider jwksProvider;
+    private final ClerkTokenParser tokenParser;
+
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(TOKEN_CACHE_MAX_SIZE);
+
+    private final VerificationTimers timers;
+
+    public ReactiveClerkTokenVerifier(@Value("${clerk.issuer}") String clerkIssuer, ReactiveClerkJwksProvider jwksProvider,
+                                      MeterRegistry meterRegistry) {
+        this.jwksProvider = jwksProvider;
+        this.tokenParser = new ClerkTokenParser(clerkIssuer);
+        this.timers = new VerificationTimers(meterRegistry);
+    }
+
+    public Mono<VerifiedToken> verify(String token) {
+        long started = System.nanoTime();
+        String tokenHash = VerifiedTokenCache.hash(token);
+
+        VerifiedToken cached = tokenCache.get(tokenHash);
+        if (cached != null) {
+            timers.cached().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return Mono.just(cached);
+        }
+
+        return Mono.fromCallable(() -> ClerkTokenParser.readKid(token))
+                .flatMap(kid -> jwksProvider.getPublicKey(kid)
+                        .map(publicKey -> tokenParser.parse(token, kid, publicKey)))
+                .doOnError(e -> timers.failed().record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                .doOnNext(verified -> {
+                    timers.verified().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    // Tokens without an expiry are verified every time rather than cached forever.
+                    if (verified.expiresAt() != null) {
+                        tokenCache.put(tokenHash, verified);
+                    }
+                });
+    }
+}
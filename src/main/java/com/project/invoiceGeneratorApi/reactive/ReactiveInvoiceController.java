@@ -0,0 +1,77 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.asset.InvoiceAssets;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.service.InvoiceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.NoSuchElementException;
+
+// PURPOSE: Reactive variant of InvoiceController, active when the app runs with the 'reactive'
+// profile. Reads go straight to the reactive Mongo driver and never hold a thread while waiting.
+// Writes reuse InvoiceService (asset extraction, versioning, rollups, cache invalidation) on
+// the bounded elastic scheduler, so the event loop is never blocked.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@RequestMapping("/api/invoices")
+@Slf4j
+public class ReactiveInvoiceController {
+
+    private final ReactiveInvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final InvoiceAssets invoiceAssets;
+
+    @PostMapping
+    public Mono<Invoice> saveInvoice(@RequestBody Invoice invoice, Authentication authentication) {
+        invoice.setClerkId(authentication.getName());
+
+        return Mono.fromCallable(() -> invoiceService.saveInvoice(invoice))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(OptimisticLockingFailureException.class, e -> new ResponseStatusException(
+                        HttpStatus.CONFLICT, "Invoice was modified by another request. Reload and try again."))
+                .onErrorMap(NoSuchElementException.class, e -> new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage()))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @GetMapping
+    public Flux<Invoice> fetchInvoices(Authentication authentication) {
+        return invoiceRepository.findByClerkId(authentication.getName())
+                .map(invoiceAssets::resolve);
+    }
+
+    // The whole history as newline-delimited JSON, written as documents arrive from the cursor.
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Invoice> streamInvoices(Authentication authentication) {
+        return invoiceRepository.findByClerkIdOrderByCreatedAtAsc(authentication.getName())
+                .map(invoiceAssets::resolve);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Invoice> fetchInvoice(@PathVariable String id, Authentication authentication) {
+        return invoiceRepository.findByClerkIdAndId(authentication.getName(), id)
+                .map(invoiceAssets::resolve)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Invoice Not Found: " + id)));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> removeInvoice(@PathVariable String id, Authentication authentication) {
+        String clerkId = authentication.getName();
+        return Mono.fromRunnable(() -> invoiceService.removeInvoice(id, clerkId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// PURPOSE: Non-blocking counterpart of InvoiceRepository for the reactive stack.
+// Documents are emitted as the driver receives them, with backpressure from the response.
+
+@Repository
+public interface ReactiveInvoiceRepository extends ReactiveMongoRepository<Invoice, String> {
+
+    Flux<Invoice> findByClerkId(String clerkId);
+
+    Mono<Invoice> findByClerkIdAndId(String clerkId, String id);
+
+    Flux<Invoice> findByClerkIdOrderByCreatedAtAsc(String clerkId);
+}
@@ -0,0 +1,76 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.config.SecurityConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import java.net.InetSocketAddress;
+
+// PURPOSE: Security for the reactive stack. Mirrors SecurityConfig: stateless, Clerk bearer
+// tokens, webhooks and assets public, 403 for unauthenticated requests.
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final ReactiveClerkTokenVerifier tokenVerifier;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .cors(cors -> cors.configurationSource(reactiveCorsConfigurationSource()))
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/webhooks/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/assets/**").permitAll()
+                        .matchers(unauthenticatedActuatorExchanges()).permitAll()
+                        .anyExchange().authenticated())
+                .exceptionHandling(handling -> handling
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .addFilterAt(new ClerkJwtWebFilter(tokenVerifier), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    // Same rule as SecurityConfig: health and Prometheus are only public on the management port.
+    private ServerWebExchangeMatcher unauthenticatedActuatorExchanges() {
+        return exchange -> {
+            InetSocketAddress local = exchange.getRequest().getLocalAddress();
+            boolean open = local != null
+                    && SecurityConfig.isManagementPort(local.getPort(), serverPort, managementPort)
+                    && HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                    && SecurityConfig.UNAUTHENTICATED_ACTUATOR_PATHS.contains(exchange.getRequest().getPath().value());
+            return open ? ServerWebExchangeMatcher.MatchResult.match() : ServerWebExchangeMatcher.MatchResult.notMatch();
+        };
+    }
+
+    private CorsConfigurationSource reactiveCorsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", SecurityConfig.corsConfiguration());
+        return source;
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.config.CacheConfig;
+import com.project.invoiceGeneratorApi.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+// PURPOSE: Reactive variant of UserController. Same create-or-update rules as
+// UserService.saveOrUpdateuser, including dropping the cached profile.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUserController {
+
+    private final ReactiveUserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<User> createOrUpdate(@RequestBody User userData, Authentication authentication) {
+        String clerkId = authentication.getName();
+
+        return userRepository.findByClerkId(clerkId)
+                .defaultIfEmpty(User.builder().clerkId(clerkId).build())
+                .filter(user -> !user.isDeleted())
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.GONE,
+                        "User " + clerkId + " has been deleted.")))
+                .flatMap(user -> {
+                    user.setEmail(userData.getEmail());
+                    user.setFirstName(userData.getFirstName());
+                    user.setLastName(userData.getLastName());
+                    user.setPhotoUrl(userData.getPhotoUrl());
+                    return userRepository.save(user);
+                })
+                .doOnNext(saved -> {
+                    log.info("Saved user with clerkId {}", clerkId);
+                    Cache users = cacheManager.getCache(CacheConfig.USERS);
+                    if (users != null) {
+                        users.evict(clerkId);
+                    }
+                });
+    }
+}
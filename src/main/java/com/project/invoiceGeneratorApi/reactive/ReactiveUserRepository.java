@@ -0,0 +1,11 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.project.invoiceGeneratorApi.entity.User;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+// PURPOSE: Non-blocking counterpart of UserRepository for the reactive stack.
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    Mono<User> findByClerkId(String clerkId);
+}
@@ -0,0 +1,22 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+
+// PURPOSE: Runs the reactive stack on Netty's event loop. Tomcat is on the classpath for the
+// servlet stack and would otherwise be picked as the reactive server too.
+// Reactive saves need their own auditing callback to fill createdAt/lastUpdatedAt.
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableReactiveMongoAuditing
+public class ReactiveWebConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.invoiceGeneratorApi.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.invoiceGeneratorApi.security.SvixWebhookVerifier;
+import com.project.invoiceGeneratorApi.service.ClerkWebhookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// PURPOSE: Reactive variant of ClerkWebhookController. The event is only recorded here
+// (a single insert, off the event loop) once its Svix signature checks out; ClerkWebhookWorker
+// applies it as usual.
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/webhooks")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveWebhookController {
+
+    private final SvixWebhookVerifier webhookVerifier;
+    private final ClerkWebhookService clerkWebhookService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping("/clerk")
+    public Mono<ResponseEntity<Void>> handleClerkWebhook(@RequestHeader("svix-id") String svixId,
+                                                         @RequestHeader("svix-timestamp") String svixTimestamp,
+                                                         @RequestHeader("svix-signature") String svixSignature,
+                                                         @RequestBody String payload) {
+        // An HMAC over the body: cheap enough for the event loop.
+        if (!webhookVerifier.verify(svixId, svixTimestamp, svixSignature, payload)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid webhook signature."));
+        }
+        return Mono.fromCallable(() -> clerkWebhookService.enqueue(svixId, svixTimestamp, objectMapper.readTree(payload)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(stored -> ResponseEntity.ok().<Void>build())
+                .onErrorMap(e -> e instanceof JsonProcessingException || e instanceof IllegalArgumentException,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onErrorMap(DataAccessException.class, e -> {
+                    log.error("Could not store Clerk webhook {}: {}", svixId, e.getMessage());
+                    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Webhook could not be stored.");
+                });
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.Contact;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContactRepository extends MongoRepository<Contact, String>, ContactRepositoryCustom {
+
+    List<Contact> findByClerkIdAndIdIn(String clerkId, Collection<String> ids);
+
+    long deleteByClerkIdAndId(String clerkId, String id);
+}
@@ -0,0 +1,21 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.Contact;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// PURPOSE: Directory lookups and the deduplicating upsert behind ContactService.
+
+public interface ContactRepositoryCustom {
+
+    // Entries of 'kind' whose normalized name starts with 'prefix', in name order. Answered by
+    // an index range scan on clerkId_kind_name_phone, reading only the returned entries.
+    List<Contact> findByPrefix(String clerkId, Contact.Kind kind, String prefix, int limit);
+
+    // Creates each contact unless an entry with the same kind, normalized name and phone exists,
+    // in which case its address and usage are updated. One bulk write for all of them; returns
+    // the stored entries (with ids) for the given contacts.
+    List<Contact> upsertAll(String clerkId, Collection<Contact> contacts, Instant usedAt);
+}
@@ -0,0 +1,81 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.mongodb.ErrorCategory;
+import com.project.invoiceGeneratorApi.entity.Contact;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class ContactRepositoryImpl implements ContactRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Contact> findByPrefix(String clerkId, Contact.Kind kind, String prefix, int limit) {
+        Criteria criteria = Criteria.where("clerkId").is(clerkId).and("kind").is(kind);
+        if (!prefix.isEmpty()) {
+            // Anchored and case-sensitive (the field is already lowercase), so Mongo turns it
+            // into index bounds instead of testing every entry.
+            criteria.and("normalizedName").regex("^" + Pattern.quote(prefix));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by("normalizedName", "normalizedPhone"))
+                .limit(limit);
+        return mongoTemplate.find(query, Contact.class);
+    }
+
+    @Override
+    public List<Contact> upsertAll(String clerkId, Collection<Contact> contacts, Instant usedAt) {
+        if (contacts.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contact.class);
+        for (Contact contact : contacts) {
+            Update update = new Update()
+                    .setOnInsert("name", contact.getName())
+                    .setOnInsert("phone", contact.getPhone())
+                    .setOnInsert("createdAt", usedAt)
+                    .set("address", contact.getAddress())
+                    .max("lastUsedAt", usedAt)
+                    .inc("useCount", 1);
+            bulk.upsert(keyOf(clerkId, contact), update);
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Two saves inserting the same new contact at once: one wins, the other's upsert
+            // fails on the unique key. Either way the entry exists, which is all we need.
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+
+        Criteria[] keys = contacts.stream()
+                .map(contact -> Criteria.where("kind").is(contact.getKind())
+                        .and("normalizedName").is(contact.getNormalizedName())
+                        .and("normalizedPhone").is(contact.getNormalizedPhone()))
+                .toArray(Criteria[]::new);
+        return mongoTemplate.find(Query.query(Criteria.where("clerkId").is(clerkId).orOperator(keys)), Contact.class);
+    }
+
+    private static Query keyOf(String clerkId, Contact contact) {
+        return Query.query(Criteria.where("clerkId").is(clerkId)
+                .and("kind").is(contact.getKind())
+                .and("normalizedName").is(contact.getNormalizedName())
+                .and("normalizedPhone").is(contact.getNormalizedPhone()));
+    }
+}
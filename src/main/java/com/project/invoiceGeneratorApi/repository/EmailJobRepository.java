@@ -0,0 +1,20 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.dto.EmailJobStatus;
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmailJobRepository extends MongoRepository<EmailJob, String>, EmailJobRepositoryCustom {
+
+    Optional<EmailJobStatus> findStatusByIdAndClerkId(String id, String clerkId);
+
+    List<EmailJobStatus> findStatusByCampaignIdAndClerkId(String campaignId, String clerkId);
+
+    boolean existsByAttachmentFileIdAndStatusIn(String attachmentFileId, Collection<EmailJob.Status> statuses);
+}
@@ -0,0 +1,26 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// PURPOSE: Atomic state transitions of queued email jobs, safe with several workers and pods.
+
+public interface EmailJobRepositoryCustom {
+
+    // Atomically claims the oldest due job (or one whose lease expired) for 'lease'.
+    // Returns null when there is nothing to do.
+    EmailJob claimNext(Instant now, Duration lease);
+
+    // Both only apply while the job is still SENDING under 'claimToken'. They return false when
+    // the lease ran out and another worker reclaimed the job; its outcome is then that worker's to record.
+    boolean markSent(String id, String claimToken, Instant sentAt);
+
+    // Puts the job back in the queue for another attempt at 'nextAttemptAt',
+    // or marks it FAILED when nextAttemptAt is null.
+    boolean markFailed(String id, String claimToken, String error, Instant nextAttemptAt);
+
+    // Hands a claimed but unsent job back, due again at 'nextAttemptAt'. The claim's attempt isn't counted.
+    boolean release(String id, String claimToken, Instant nextAttemptAt);
+}
@@ -0,0 +1,82 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class EmailJobRepositoryImpl implements EmailJobRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public EmailJob claimNext(Instant now, Duration lease) {
+        // Due jobs, plus jobs whose worker died mid-send (lease expired).
+        Criteria due = Criteria.where("status").is(EmailJob.Status.PENDING).and("nextAttemptAt").lte(now);
+        Criteria abandoned = Criteria.where("status").is(EmailJob.Status.SENDING).and("lockedUntil").lte(now);
+
+        Query query = new Query(new Criteria().orOperator(due, abandoned))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+
+        Update update = new Update()
+                .set("status", EmailJob.Status.SENDING)
+                .set("claimToken", UUID.randomUUID().toString())
+                .set("lockedUntil", now.plus(lease))
+                .inc("attempts", 1);
+
+        // findAndModify is atomic, so two workers can never claim the same job.
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), EmailJob.class);
+    }
+
+    @Override
+    public boolean markSent(String id, String claimToken, Instant sentAt) {
+        Update update = new Update()
+                .set("status", EmailJob.Status.SENT)
+                .set("sentAt", sentAt)
+                .unset("claimToken")
+                .unset("lockedUntil")
+                .unset("lastError");
+        return mongoTemplate.updateFirst(claimedBy(id, claimToken), update, EmailJob.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean markFailed(String id, String claimToken, String error, Instant nextAttemptAt) {
+        Update update = new Update()
+                .set("lastError", error)
+                .unset("claimToken")
+                .unset("lockedUntil");
+        if (nextAttemptAt != null) {
+            update.set("status", EmailJob.Status.PENDING).set("nextAttemptAt", nextAttemptAt);
+        } else {
+            update.set("status", EmailJob.Status.FAILED);
+        }
+        return mongoTemplate.updateFirst(claimedBy(id, claimToken), update, EmailJob.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean release(String id, String claimToken, Instant nextAttemptAt) {
+        Update update = new Update()
+                .set("status", EmailJob.Status.PENDING)
+                .set("nextAttemptAt", nextAttemptAt)
+                .unset("claimToken")
+                .unset("lockedUntil")
+                .inc("attempts", -1);
+        return mongoTemplate.updateFirst(claimedBy(id, claimToken), update, EmailJob.class).getModifiedCount() > 0;
+    }
+
+    // Same guard as the claim: a worker whose lease expired must not overwrite the new claimant's state.
+    private static Query claimedBy(String id, String claimToken) {
+        return Query.query(Criteria.where("id").is(id)
+                .and("status").is(EmailJob.Status.SENDING)
+                .and("claimToken").is(claimToken));
+    }
+}
@@ -1,16 +1,52 @@
 package com.project.invoiceGeneratorApi.repository;
 
 import com.project.invoiceGeneratorApi.entity.Invoice;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InvoiceRepository extends MongoRepository<Invoice, String> {
+public interface InvoiceRepository extends MongoRepository<Invoice, String>, InvoiceRepositoryCustom {
 
     List<Invoice> findByClerkId(String id);
 
     Optional<Invoice> findByClerkIdAndId(String clerkId, String id);
+
+    boolean existsByClerkIdAndId(String clerkId, String id);
+
+    long countByClerkId(String clerkId);
+
+    // Whether a recurring schedule already issued this occurrence (scheduleId_occurrence index).
+    boolean existsByScheduleIdAndOccurrence(String scheduleId, Integer occurrence);
+
+    // The user's most recently changed invoice, lastUpdatedAt only: answered from the
+    // clerkId_lastUpdatedAt index without reading any document.
+    @Query(fields = "{ 'lastUpdatedAt': 1, '_id': 0 }")
+    Optional<Invoice> findFirstByClerkIdOrderByLastUpdatedAtDesc(String clerkId);
+
+    // Just what the ETag of a single invoice is made of.
+    @Query(value = "{ 'clerkId': ?0, '_id': ?1 }", fields = "{ 'version': 1, 'lastUpdatedAt': 1 }")
+    Optional<Invoice> findVersionByClerkIdAndId(String clerkId, String id);
+
+    // Which of these ids belong to the user; only the _id field is loaded.
+    @Query(fields = "{ '_id': 1 }")
+    List<Invoice> findIdsByClerkIdAndIdIn(String clerkId, Collection<String> ids);
+
+    // The version plus the fields that decide an invoice's contribution to the rollups
+    // (see InvoiceAnalyticsService), and the server-managed thumbnail and schedule state a save keeps.
+    @Query(value = "{ 'clerkId': ?0, '_id': ?1 }",
+            fields = "{ 'version': 1, 'total': 1, 'tax': 1, 'items.qty': 1, 'items.amount': 1, 'issuedOn': 1, 'createdAt': 1, 'billing.name': 1, "
+                    + "'thumbnails': 1, 'thumbnailHash': 1, 'thumbnailAssetId': 1, 'scheduleId': 1, 'occurrence': 1 }")
+    Optional<Invoice> findRollupFieldsByClerkIdAndId(String clerkId, String id);
+
+    // Backed by a live Mongo cursor: documents are fetched in batches as the stream is consumed.
+    // Callers must close the stream (try-with-resources) to release the cursor.
+    @Meta(cursorBatchSize = 500)
+    Stream<Invoice> streamByClerkIdOrderByCreatedAtAsc(String clerkId);
 }
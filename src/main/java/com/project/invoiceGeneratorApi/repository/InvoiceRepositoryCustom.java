@@ -0,0 +1,74 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.dto.InvoiceAnalytics;
+import com.project.invoiceGeneratorApi.dto.InvoiceCursor;
+import com.project.invoiceGeneratorApi.dto.InvoiceSearch;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummary;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.entity.InvoiceRollup;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// PURPOSE: Hand-written queries that Spring Data cannot derive from method names.
+// Implemented by InvoiceRepositoryImpl and mixed into InvoiceRepository.
+
+public interface InvoiceRepositoryCustom {
+
+    // Returns up to 'limit' summaries ordered by (createdAt, id) in the given direction,
+    // starting strictly after 'after' (or from the beginning when it is null).
+    List<InvoiceSummary> findSummariesByClerkId(String clerkId, InvoiceCursor after, Sort.Direction direction, int limit);
+
+    // Newest-first summaries of the user's invoices matching 'search', after 'after' if given.
+    List<InvoiceSummary> searchSummaries(String clerkId, InvoiceSearch search, InvoiceCursor after, int limit);
+
+    // Totals the user's invoices overall, by issue month and by billing name in one aggregation.
+    // CUSTOMER rows are keyed by the trimmed billing name as stored; callers normalize them.
+    List<InvoiceRollup> aggregateRollups(String clerkId);
+
+    // Count and total of the user's invoices due before 'before'.
+    InvoiceAnalytics.Overdue aggregateOverdue(String clerkId, Instant before);
+
+    // Applies 'update' to the user's invoice if it is still at 'expectedVersion', bumping the
+    // version and lastUpdatedAt in the same write. Returns the updated invoice, or null when
+    // the invoice doesn't exist or has moved on to another version.
+    Invoice updateIfVersion(String clerkId, String id, Long expectedVersion, Update update);
+
+    // Deletes the user's invoice and returns the fields that decide its contribution to the
+    // rollups, as they were when it was removed; null when there was nothing to delete (not the
+    // user's, or removed by someone else first). One findAndRemove, so only the caller that
+    // actually removed the invoice gets it back.
+    Invoice removeReturningRollupFields(String clerkId, String id);
+
+    // Stores the totals and dates computed from the invoice, as long as it is still at 'version'.
+    void updateDerivedFields(Invoice invoice);
+
+    // Gives a document written before versioning existed its first version, so a versioned
+    // save can match it.
+    void initializeVersion(String id);
+
+    // Stores freshly rendered thumbnails, unless the invoice has moved past 'version' in the
+    // meantime (that newer version gets its own render). Doesn't bump the version: thumbnails
+    // are not an edit. It does bump lastUpdatedAt, so ETags change and clients pick up the
+    // new preview. Returns whether the invoice was updated.
+    boolean updateThumbnails(String id, Long version, String thumbnailHash, Map<String, String> thumbnails, String listingAssetId);
+
+    // Up to 'limit' invoices after 'afterId' (in _id order) still stored below 'schemaVersion'.
+    // Walking _id keeps each batch an index range scan and gives the migration a resume point.
+    List<Invoice> findBelowSchemaVersion(String afterId, int schemaVersion, int limit);
+
+    // Applies a migration update unless the invoice was written since it was read. Doesn't
+    // bump version or lastUpdatedAt: a storage migration is not an edit.
+    boolean migrate(String id, Long version, Update update);
+
+    // collStats of the invoices collection: size, count, avgObjSize, storageSize, ...
+    Document collectionStats();
+
+    // Inserts the invoices with one unordered bulk write: one bad document doesn't stop the
+    // others. Returns the position of every invoice that was not inserted, with the reason.
+    Map<Integer, String> insertUnordered(List<Invoice> invoices);
+}
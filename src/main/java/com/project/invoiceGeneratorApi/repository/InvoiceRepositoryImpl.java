@@ -0,0 +1,304 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.project.invoiceGeneratorApi.dto.InvoiceAnalytics;
+import com.project.invoiceGeneratorApi.dto.InvoiceCursor;
+import com.project.invoiceGeneratorApi.dto.InvoiceSearch;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummary;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.entity.InvoiceRollup;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
+
+    // The stored total, or for documents written before totals were stored the same
+    // computation as Invoice.calculateTotal(): sum(qty * amount) * (1 + tax / 100).
+    private static final Document TOTAL = new Document("$ifNull", List.of("$total",
+            new Document("$multiply", List.of(
+                    new Document("$reduce", new Document()
+                            .append("input", new Document("$ifNull", List.of("$items", List.of())))
+                            .append("initialValue", 0)
+                            .append("in", new Document("$add", List.of("$$value",
+                                    new Document("$multiply", List.of("$$this.qty", "$$this.amount")))))),
+                    new Document("$add", List.of(1, new Document("$divide",
+                            List.of(new Document("$ifNull", List.of("$tax", 0)), 100))))))));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<InvoiceSummary> findSummariesByClerkId(String clerkId, InvoiceCursor after, Sort.Direction direction, int limit) {
+
+        Criteria criteria = Criteria.where("clerkId").is(clerkId);
+
+        // Keyset condition: everything past (createdAt, id) in sort order.
+        // This is served by the {clerkId, createdAt, _id} index, so the cost of a page
+        // does not grow with how deep into the listing the client is.
+        if (after != null) {
+            criteria = criteria.orOperator(pastCursor(after, direction));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(direction, "createdAt", "id"))
+                .limit(limit);
+
+        return findSummaries(query);
+    }
+
+    @Override
+    public List<InvoiceSummary> searchSummaries(String clerkId, InvoiceSearch search, InvoiceCursor after, int limit) {
+        // clerkId first: every index below starts with it, including the text index, which
+        // can only be used with an equality match on its prefix.
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("clerkId").is(clerkId));
+
+        if (search.number() != null && !search.number().isBlank()) {
+            filters.add(Criteria.where("invoice.number").is(search.number().strip()));
+        }
+        if (search.customer() != null && !search.customer().isBlank()) {
+            // An anchored, case-sensitive prefix regex becomes an index range scan.
+            filters.add(Criteria.where("billing.name").regex("^" + Pattern.quote(search.customer().strip())));
+        }
+        addDateRange(filters, "issuedOn", search.from(), search.to());
+        addDateRange(filters, "dueOn", search.dueFrom(), search.dueTo());
+        if (after != null) {
+            filters.add(new Criteria().orOperator(pastCursor(after, Sort.Direction.DESC)));
+        }
+
+        Query query = new Query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        if (search.hasText()) {
+            query.addCriteria(TextCriteria.forDefaultLanguage().matching(search.q().strip()));
+        }
+
+        return findSummaries(query);
+    }
+
+    @Override
+    public List<InvoiceRollup> aggregateRollups(String clerkId) {
+        AggregationOperation project = context -> new Document("$project", new Document()
+                .append("month", new Document("$dateToString", new Document()
+                        .append("format", "%Y-%m")
+                        .append("date", new Document("$ifNull", List.of("$issuedOn", "$createdAt")))))
+                .append("customer", new Document("$trim", new Document("input",
+                        new Document("$ifNull", List.of("$billing.name", "")))))
+                .append("total", TOTAL));
+
+        AggregationOperation facet = context -> new Document("$facet", new Document()
+                .append("all", List.of(groupBy(InvoiceRollup.ALL_KEY, "$total")))
+                .append("months", List.of(groupBy("$month", "$total")))
+                .append("customers", List.of(groupBy("$customer", "$total"))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("clerkId").is(clerkId)), project, facet);
+
+        Document result = mongoTemplate.aggregate(aggregation, Invoice.class, Document.class).getUniqueMappedResult();
+        List<InvoiceRollup> rollups = new ArrayList<>();
+        if (result != null) {
+            addRollups(rollups, clerkId, InvoiceRollup.Kind.ALL, result.getList("all", Document.class));
+            addRollups(rollups, clerkId, InvoiceRollup.Kind.MONTH, result.getList("months", Document.class));
+            addRollups(rollups, clerkId, InvoiceRollup.Kind.CUSTOMER, result.getList("customers", Document.class));
+        }
+        return rollups;
+    }
+
+    @Override
+    public InvoiceAnalytics.Overdue aggregateOverdue(String clerkId, Instant before) {
+        // Served by the {clerkId, dueOn} index; only the overdue invoices are read.
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("clerkId").is(clerkId).and("dueOn").lt(before)),
+                context -> groupBy(null, TOTAL));
+
+        Document result = mongoTemplate.aggregate(aggregation, Invoice.class, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return new InvoiceAnalytics.Overdue(0, 0);
+        }
+        return new InvoiceAnalytics.Overdue(result.get("count", Number.class).longValue(),
+                result.get("total", Number.class).doubleValue());
+    }
+
+    @Override
+    public Invoice updateIfVersion(String clerkId, String id, Long expectedVersion, Update update) {
+        // A null version also matches documents that predate versioning (the field is missing).
+        Query query = Query.query(Criteria.where("id").is(id).and("clerkId").is(clerkId).and("version").is(expectedVersion));
+        update.inc("version", 1).set("lastUpdatedAt", Instant.now());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Invoice.class);
+    }
+
+    @Override
+    public Invoice removeReturningRollupFields(String clerkId, String id) {
+        Query query = Query.query(Criteria.where("id").is(id).and("clerkId").is(clerkId));
+        query.fields().include("version", "total", "tax", "items.qty", "items.amount", "issuedOn", "createdAt", "billing.name");
+        return mongoTemplate.findAndRemove(query, Invoice.class);
+    }
+
+    @Override
+    public void updateDerivedFields(Invoice invoice) {
+        Query query = Query.query(Criteria.where("id").is(invoice.getId()).and("version").is(invoice.getVersion()));
+        Update update = new Update()
+                .set("subtotal", invoice.getSubtotal())
+                .set("taxAmount", invoice.getTaxAmount())
+                .set("total", invoice.getTotal())
+                .set("issuedOn", invoice.getIssuedOn())
+                .set("dueOn", invoice.getDueOn());
+        mongoTemplate.updateFirst(query, update, Invoice.class);
+    }
+
+    @Override
+    public void initializeVersion(String id) {
+        Query query = Query.query(Criteria.where("id").is(id).and("version").exists(false));
+        mongoTemplate.updateFirst(query, new Update().set("version", 0L), Invoice.class);
+    }
+
+    @Override
+    public boolean updateThumbnails(String id, Long version, String thumbnailHash, Map<String, String> thumbnails, String listingAssetId) {
+        Query query = Query.query(Criteria.where("id").is(id).and("version").is(version));
+        Update update = new Update()
+                .set("thumbnails", thumbnails)
+                .set("thumbnailHash", thumbnailHash)
+                .set("thumbnailAssetId", listingAssetId)
+                .unset("thumbnailUrl")
+                .set("lastUpdatedAt", Instant.now());
+        return mongoTemplate.updateFirst(query, update, Invoice.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public List<Invoice> findBelowSchemaVersion(String afterId, int schemaVersion, int limit) {
+        Criteria criteria = new Criteria().orOperator(
+                Criteria.where("schemaVersion").exists(false),
+                Criteria.where("schemaVersion").lt(schemaVersion));
+        if (afterId != null) {
+            criteria = new Criteria().andOperator(Criteria.where("id").gt(afterId), criteria);
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "id")).limit(limit);
+        return mongoTemplate.find(query, Invoice.class);
+    }
+
+    @Override
+    public boolean migrate(String id, Long version, Update update) {
+        // A null version also matches documents that predate versioning (the field is missing).
+        Query query = Query.query(Criteria.where("id").is(id).and("version").is(version));
+        return mongoTemplate.updateFirst(query, update, Invoice.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public Document collectionStats() {
+        return mongoTemplate.executeCommand(new Document("collStats", mongoTemplate.getCollectionName(Invoice.class)));
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class).insert(invoices).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    private List<InvoiceSummary> findSummaries(Query query) {
+        // Only pull the fields the summary needs. Items (reduced to qty/amount) are only used
+        // for legacy documents without a stored total.
+        query.fields()
+                .include("id", "title", "invoice.number", "invoice.date", "invoice.dueDate",
+                        "thumbnailUrl", "thumbnailAssetId", "createdAt", "total", "tax", "items.qty", "items.amount");
+
+        return mongoTemplate.find(query, Invoice.class).stream()
+                .map(InvoiceRepositoryImpl::toSummary)
+                .toList();
+    }
+
+    private static Criteria[] pastCursor(InvoiceCursor after, Sort.Direction direction) {
+        Criteria pastCreatedAt = direction.isDescending()
+                ? Criteria.where("createdAt").lt(after.createdAt())
+                : Criteria.where("createdAt").gt(after.createdAt());
+        Criteria sameCreatedAtPastId = direction.isDescending()
+                ? Criteria.where("createdAt").is(after.createdAt()).and("id").lt(after.id())
+                : Criteria.where("createdAt").is(after.createdAt()).and("id").gt(after.id());
+        return new Criteria[] {pastCreatedAt, sameCreatedAtPastId};
+    }
+
+    // Inclusive day range on one of the parsed date fields (stored as UTC midnight).
+    private static void addDateRange(List<Criteria> filters, String field, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return;
+        }
+        Criteria range = Criteria.where(field);
+        if (from != null) {
+            range = range.gte(from.atStartOfDay(ZoneOffset.UTC).toInstant());
+        }
+        if (to != null) {
+            range = range.lt(to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        }
+        filters.add(range);
+    }
+
+    private static Document groupBy(Object key, Object total) {
+        return new Document("$group", new Document()
+                .append("_id", key)
+                .append("count", new Document("$sum", 1))
+                .append("total", new Document("$sum", total)));
+    }
+
+    private static void addRollups(List<InvoiceRollup> rollups, String clerkId, InvoiceRollup.Kind kind, List<Document> groups) {
+        for (Document group : groups) {
+            String key = group.getString("_id");
+            if (key == null || key.isEmpty()) {
+                continue;
+            }
+            rollups.add(InvoiceRollup.builder()
+                    .clerkId(clerkId)
+                    .kind(kind)
+                    .key(key)
+                    .label(kind == InvoiceRollup.Kind.CUSTOMER ? key : null)
+                    .invoiceCount(group.get("count", Number.class).longValue())
+                    .total(group.get("total", Number.class).doubleValue())
+                    .build());
+        }
+    }
+
+    private static InvoiceSummary toSummary(Invoice invoice) {
+        Invoice.InvoiceDetails details = invoice.getInvoice();
+
+        return InvoiceSummary.builder()
+                .id(invoice.getId())
+                .title(invoice.getTitle())
+                .number(details != null ? details.getNumber() : null)
+                .date(details != null ? details.getDate() : null)
+                .dueDate(details != null ? details.getDueDate() : null)
+                .total(invoice.resolvedTotal())
+                .thumbnailUrl(invoice.getThumbnailUrl())
+                .thumbnailAssetId(invoice.getThumbnailAssetId())
+                .createdAt(invoice.getCreatedAt())
+                .build();
+    }
+}
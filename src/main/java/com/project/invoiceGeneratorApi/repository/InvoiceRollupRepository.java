@@ -0,0 +1,19 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceRollupRepository extends MongoRepository<InvoiceRollup, String>, InvoiceRollupRepositoryCustom {
+
+    Optional<InvoiceRollup> findByClerkIdAndKindAndKey(String clerkId, InvoiceRollup.Kind kind, String key);
+
+    List<InvoiceRollup> findByClerkIdAndKindAndKeyGreaterThanEqualOrderByKeyAsc(String clerkId, InvoiceRollup.Kind kind, String fromKey);
+
+    List<InvoiceRollup> findByClerkIdAndKindOrderByTotalDesc(String clerkId, InvoiceRollup.Kind kind, Pageable pageable);
+}
@@ -0,0 +1,19 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceRollup;
+
+import java.util.Collection;
+import java.util.List;
+
+// PURPOSE: Bulk maintenance of the invoice_rollups documents.
+
+public interface InvoiceRollupRepositoryCustom {
+
+    // Adds each delta's count and total to its rollup document (creating it if needed) in one
+    // bulk write, and drops documents that no longer count any invoice.
+    void applyDeltas(String clerkId, Collection<InvoiceRollup> deltas);
+
+    // Replaces all of the user's rollups with freshly aggregated ones: each is overwritten by
+    // key with $set, then the user's rollups whose key is not among them are removed.
+    void replaceAll(String clerkId, List<InvoiceRollup> rollups);
+}
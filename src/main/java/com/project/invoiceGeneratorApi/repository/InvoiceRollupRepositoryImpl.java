@@ -0,0 +1,78 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class InvoiceRollupRepositoryImpl implements InvoiceRollupRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void applyDeltas(String clerkId, Collection<InvoiceRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Ordered, so the cleanup removes run after the increments they depend on.
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, InvoiceRollup.class);
+        for (InvoiceRollup delta : deltas) {
+            Update update = new Update()
+                    .inc("invoiceCount", delta.getInvoiceCount())
+                    .inc("total", delta.getTotal());
+            if (delta.getLabel() != null) {
+                update.set("label", delta.getLabel());
+            }
+            bulk.upsert(keyOf(clerkId, delta), update);
+        }
+        for (InvoiceRollup delta : deltas) {
+            if (delta.getKind() != InvoiceRollup.Kind.ALL && delta.getInvoiceCount() < 0) {
+                bulk.remove(keyOf(clerkId, delta).addCriteria(Criteria.where("invoiceCount").lte(0)));
+            }
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void replaceAll(String clerkId, List<InvoiceRollup> rollups) {
+        // Every rebuilt rollup is $set in place by its key instead of removing the user's rollups
+        // and inserting new ones: a concurrent applyDeltas upsert then never finds its key
+        // missing and races the insert on the unique index, and readers never see an empty set.
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, InvoiceRollup.class);
+        Map<InvoiceRollup.Kind, List<String>> keysByKind = new EnumMap<>(InvoiceRollup.Kind.class);
+        for (InvoiceRollup rollup : rollups) {
+            Update update = new Update()
+                    .set("invoiceCount", rollup.getInvoiceCount())
+                    .set("total", rollup.getTotal())
+                    .set("label", rollup.getLabel())
+                    .set("rebuiltAt", rollup.getRebuiltAt());
+            bulk.upsert(keyOf(clerkId, rollup), update);
+            keysByKind.computeIfAbsent(rollup.getKind(), ignored -> new ArrayList<>()).add(rollup.getKey());
+        }
+        // Then drop the keys no invoice counts towards any more (a month or customer whose
+        // invoices were all deleted).
+        for (InvoiceRollup.Kind kind : InvoiceRollup.Kind.values()) {
+            bulk.remove(Query.query(Criteria.where("clerkId").is(clerkId)
+                    .and("kind").is(kind)
+                    .and("key").nin(keysByKind.getOrDefault(kind, List.of()))));
+        }
+        bulk.execute();
+    }
+
+    private static Query keyOf(String clerkId, InvoiceRollup rollup) {
+        return Query.query(Criteria.where("clerkId").is(clerkId)
+                .and("kind").is(rollup.getKind())
+                .and("key").is(rollup.getKey()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceScheduleRepository extends MongoRepository<InvoiceSchedule, String>, InvoiceScheduleRepositoryCustom {
+
+    List<InvoiceSchedule> findByClerkIdOrderByCreatedAtDesc(String clerkId);
+
+    Optional<InvoiceSchedule> findByClerkIdAndId(String clerkId, String id);
+
+    long countByClerkIdAndActiveTrue(String clerkId);
+}
@@ -0,0 +1,21 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// PURPOSE: Leases on due schedules, safe with several workers and pods.
+
+public interface InvoiceScheduleRepositoryCustom {
+
+    // Claims up to 'limit' due schedules (or ones whose lease expired) for 'lease', in three
+    // round trips regardless of the batch size. Every claimed schedule carries the same token.
+    List<InvoiceSchedule> claimBatch(Instant now, Duration lease, int limit);
+
+    // Writes the outcome of a run (next run, counters, last invoice or error) and releases the
+    // lease, in one bulk write. Schedules whose lease was taken over meanwhile are left alone.
+    void release(String claimToken, Collection<InvoiceSchedule> schedules);
+}
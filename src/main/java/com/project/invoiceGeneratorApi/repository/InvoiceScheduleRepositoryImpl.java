@@ -0,0 +1,83 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class InvoiceScheduleRepositoryImpl implements InvoiceScheduleRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<InvoiceSchedule> claimBatch(Instant now, Duration lease, int limit) {
+        Query candidates = new Query(claimable(now))
+                .with(Sort.by(Sort.Direction.ASC, "nextRunAt"))
+                .limit(limit);
+        candidates.fields().include("_id");
+
+        List<String> ids = mongoTemplate.find(candidates, InvoiceSchedule.class).stream()
+                .map(InvoiceSchedule::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // The claim condition is checked again per document inside the update, so a schedule
+        // another pod claimed in the meantime doesn't get our token.
+        String claimToken = UUID.randomUUID().toString();
+        Query claim = new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now)));
+        Update update = new Update()
+                .set("claimToken", claimToken)
+                .set("lockedUntil", now.plus(lease));
+        mongoTemplate.updateMulti(claim, update, InvoiceSchedule.class);
+
+        Query claimed = Query.query(Criteria.where("claimToken").is(claimToken))
+                .with(Sort.by(Sort.Direction.ASC, "nextRunAt"));
+        return mongoTemplate.find(claimed, InvoiceSchedule.class);
+    }
+
+    @Override
+    public void release(String claimToken, Collection<InvoiceSchedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InvoiceSchedule.class);
+        for (InvoiceSchedule schedule : schedules) {
+            Query owned = Query.query(Criteria.where("_id").is(schedule.getId()).and("claimToken").is(claimToken));
+            Update update = new Update()
+                    .set("issuedCount", schedule.getIssuedCount())
+                    .set("nextRunAt", schedule.getNextRunAt())
+                    .set("lastInvoiceId", schedule.getLastInvoiceId())
+                    .set("lastIssuedAt", schedule.getLastIssuedAt())
+                    .set("lastError", schedule.getLastError())
+                    .unset("claimToken")
+                    .unset("lockedUntil");
+            // Only ever switched off here: a user pausing the schedule mid-run must win.
+            if (!schedule.isActive()) {
+                update.set("active", false);
+            }
+            bulk.updateOne(owned, update);
+        }
+        bulk.execute();
+    }
+
+    private static Criteria claimable(Instant now) {
+        Criteria due = Criteria.where("active").is(true).and("nextRunAt").lte(now);
+        Criteria unclaimed = new Criteria().orOperator(
+                Criteria.where("lockedUntil").exists(false),
+                Criteria.where("lockedUntil").lte(now));
+        return new Criteria().andOperator(due, unclaimed);
+    }
+}
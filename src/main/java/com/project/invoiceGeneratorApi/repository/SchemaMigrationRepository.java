@@ -0,0 +1,9 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.SchemaMigration;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchemaMigrationRepository extends MongoRepository<SchemaMigration, String>, SchemaMigrationRepositoryCustom {
+}
@@ -0,0 +1,20 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.SchemaMigration;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// PURPOSE: Lease handling for schema_migrations, safe with several pods starting at once.
+
+public interface SchemaMigrationRepositoryCustom {
+
+    // Takes the migration of 'id' to 'targetVersion' for 'lease', unless it is complete or
+    // another owner holds an unexpired lease. A migration recorded for an older target version
+    // starts over for the new one. Returns the progress to resume from, or null.
+    SchemaMigration claim(String id, int targetVersion, String owner, Instant now, Duration lease);
+
+    // Stores the progress and extends the lease. Returns false when the lease was lost; the
+    // caller must stop then, because someone else is migrating.
+    boolean checkpoint(SchemaMigration progress, Instant lockedUntil);
+}
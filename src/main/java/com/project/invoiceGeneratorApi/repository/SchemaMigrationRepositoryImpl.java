@@ -0,0 +1,84 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.SchemaMigration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RequiredArgsConstructor
+public class SchemaMigrationRepositoryImpl implements SchemaMigrationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public SchemaMigration claim(String id, int targetVersion, String owner, Instant now, Duration lease) {
+        // First run, or a new target version: (re)start from the beginning.
+        Query outdated = Query.query(Criteria.where("id").is(id).and("targetVersion").lt(targetVersion));
+        Update restart = new Update()
+                .set("targetVersion", targetVersion)
+                .set("migrated", 0L)
+                .set("skipped", 0L)
+                .set("failed", 0L)
+                .set("startedAt", now)
+                .unset("lastId")
+                .unset("completedAt")
+                .unset("sizeBytesBefore")
+                .unset("storageBytesBefore")
+                .unset("averageDocumentBytesBefore")
+                .unset("sizeBytesAfter")
+                .unset("storageBytesAfter")
+                .unset("averageDocumentBytesAfter");
+        if (mongoTemplate.updateFirst(outdated, restart, SchemaMigration.class).getMatchedCount() == 0) {
+            Query missing = Query.query(Criteria.where("id").is(id));
+            mongoTemplate.upsert(missing, new Update()
+                    .setOnInsert("targetVersion", targetVersion)
+                    .setOnInsert("startedAt", now), SchemaMigration.class);
+        }
+
+        Query claimable = Query.query(Criteria.where("id").is(id)
+                .and("targetVersion").is(targetVersion)
+                .and("completedAt").exists(false)
+                .orOperator(
+                        Criteria.where("lockedUntil").exists(false),
+                        Criteria.where("lockedUntil").lt(now),
+                        Criteria.where("owner").is(owner)));
+        Update take = new Update()
+                .set("owner", owner)
+                .set("lockedUntil", now.plus(lease));
+        return mongoTemplate.findAndModify(claimable, take, FindAndModifyOptions.options().returnNew(true), SchemaMigration.class);
+    }
+
+    @Override
+    public boolean checkpoint(SchemaMigration progress, Instant lockedUntil) {
+        Query owned = Query.query(Criteria.where("id").is(progress.getId()).and("owner").is(progress.getOwner()));
+        Update update = new Update()
+                .set("migrated", progress.getMigrated())
+                .set("skipped", progress.getSkipped())
+                .set("failed", progress.getFailed())
+                .set("updatedAt", progress.getUpdatedAt())
+                .set("lockedUntil", lockedUntil);
+        setOrUnset(update, "lastId", progress.getLastId());
+        setOrUnset(update, "completedAt", progress.getCompletedAt());
+        setOrUnset(update, "sizeBytesBefore", progress.getSizeBytesBefore());
+        setOrUnset(update, "storageBytesBefore", progress.getStorageBytesBefore());
+        setOrUnset(update, "averageDocumentBytesBefore", progress.getAverageDocumentBytesBefore());
+        setOrUnset(update, "sizeBytesAfter", progress.getSizeBytesAfter());
+        setOrUnset(update, "storageBytesAfter", progress.getStorageBytesAfter());
+        setOrUnset(update, "averageDocumentBytesAfter", progress.getAverageDocumentBytesAfter());
+        return mongoTemplate.updateFirst(owned, update, SchemaMigration.class).getMatchedCount() > 0;
+    }
+
+    private static void setOrUnset(Update update, String key, Object value) {
+        if (value != null) {
+            update.set(key, value);
+        } else {
+            update.unset(key);
+        }
+    }
+}
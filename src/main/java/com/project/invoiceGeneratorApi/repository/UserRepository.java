@@ -7,7 +7,7 @@ import java.util.Optional;
 // PURPOSE: Provides data access methods for the User entity to MongoDB.
 // Spring Data MongoDB will automatically implement these methods.
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByClerkId(String clerkId);
     boolean existsByClerkId(String clerkId);
 }
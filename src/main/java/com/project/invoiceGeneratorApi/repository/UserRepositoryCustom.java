@@ -0,0 +1,14 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+
+import java.util.Collection;
+
+// PURPOSE: Applies Clerk webhook events to the users collection in bulk.
+
+public interface UserRepositoryCustom {
+
+    // Upserts or deletes one user per event in a single bulk write. Expects at most one event
+    // per clerkId. An event older than what a user document already reflects is skipped.
+    void applyWebhookEvents(Collection<WebhookEvent> events);
+}
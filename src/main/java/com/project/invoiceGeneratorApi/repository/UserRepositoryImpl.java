@@ -0,0 +1,87 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.invoiceGeneratorApi.entity.User;
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void applyWebhookEvents(Collection<WebhookEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Unordered: one failing operation doesn't stop the others.
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (WebhookEvent event : events) {
+            if (event.isDeletion()) {
+                // Deletion is final, whatever was applied before: keep only a tombstone.
+                Update tombstone = new Update()
+                        .set("deleted", true)
+                        .set("lastEventAt", event.getOccurredAt())
+                        .unset("email")
+                        .unset("firstName")
+                        .unset("lastName")
+                        .unset("photoUrl")
+                        .setOnInsert("createdAt", Instant.now());
+                bulk.upsert(Query.query(Criteria.where("clerkId").is(event.getClerkId())), tombstone);
+            } else {
+                // A tombstone never matches, so the upsert's insert hits the unique clerkId index
+                // and the event is skipped below like any other stale one.
+                Query query = Query.query(new Criteria().andOperator(
+                        Criteria.where("clerkId").is(event.getClerkId()),
+                        Criteria.where("deleted").ne(true),
+                        notNewerThan(event.getOccurredAt())));
+                Update update = new Update()
+                        .set("email", event.getEmail())
+                        .set("firstName", event.getFirstName())
+                        .set("lastName", event.getLastName())
+                        .set("photoUrl", event.getPhotoUrl())
+                        .set("lastEventAt", event.getOccurredAt())
+                        // @CreatedDate isn't applied to bulk writes.
+                        .setOnInsert("createdAt", Instant.now());
+                bulk.upsert(query, update);
+            }
+        }
+
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // When the user document already reflects a newer event the query doesn't match, so
+            // the upsert tries to insert and hits the unique clerkId index. That's the stale
+            // event being skipped, not a failure.
+            List<BulkWriteError> failures = e.getErrors().stream()
+                    .filter(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)
+                    .toList();
+            if (!failures.isEmpty()) {
+                throw e;
+            }
+            log.debug("Skipped {} stale user webhook events", e.getErrors().size());
+        }
+    }
+
+    // Users created through the API (or before this field existed) have no lastEventAt yet.
+    private static Criteria notNewerThan(Instant occurredAt) {
+        return new Criteria().orOperator(
+                Criteria.where("lastEventAt").exists(false),
+                Criteria.where("lastEventAt").lte(occurredAt));
+    }
+}
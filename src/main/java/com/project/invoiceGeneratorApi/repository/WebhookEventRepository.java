@@ -0,0 +1,9 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WebhookEventRepository extends MongoRepository<WebhookEvent, String>, WebhookEventRepositoryCustom {
+}
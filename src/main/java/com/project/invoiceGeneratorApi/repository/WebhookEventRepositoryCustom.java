@@ -0,0 +1,19 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// PURPOSE: Batch state transitions of queued webhook events, safe with several appliers and pods.
+
+public interface WebhookEventRepositoryCustom {
+
+    // Claims up to 'limit' of the oldest pending events (or events whose lease expired)
+    // for 'lease', in three round trips regardless of the batch size.
+    List<WebhookEvent> claimBatch(Instant now, Duration lease, int limit);
+
+    void markApplied(Collection<String> ids, Instant appliedAt);
+}
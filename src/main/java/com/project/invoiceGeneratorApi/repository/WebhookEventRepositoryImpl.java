@@ -0,0 +1,66 @@
+package com.project.invoiceGeneratorApi.repository;
+
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class WebhookEventRepositoryImpl implements WebhookEventRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<WebhookEvent> claimBatch(Instant now, Duration lease, int limit) {
+        Query candidates = new Query(claimable(now))
+                .with(Sort.by(Sort.Direction.ASC, "receivedAt"))
+                .limit(limit);
+        candidates.fields().include("_id");
+
+        List<String> ids = mongoTemplate.find(candidates, WebhookEvent.class).stream()
+                .map(WebhookEvent::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Re-check the claim condition in the update itself: if another applier got to some
+        // of these events first, they simply don't get our token.
+        String claimToken = UUID.randomUUID().toString();
+        Query claim = new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now)));
+        Update update = new Update()
+                .set("status", WebhookEvent.Status.PROCESSING)
+                .set("claimToken", claimToken)
+                .set("lockedUntil", now.plus(lease));
+        mongoTemplate.updateMulti(claim, update, WebhookEvent.class);
+
+        Query claimed = Query.query(Criteria.where("claimToken").is(claimToken))
+                .with(Sort.by(Sort.Direction.ASC, "receivedAt"));
+        return mongoTemplate.find(claimed, WebhookEvent.class);
+    }
+
+    @Override
+    public void markApplied(Collection<String> ids, Instant appliedAt) {
+        Update update = new Update()
+                .set("status", WebhookEvent.Status.APPLIED)
+                .set("appliedAt", appliedAt)
+                .unset("claimToken")
+                .unset("lockedUntil");
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)), update, WebhookEvent.class);
+    }
+
+    private static Criteria claimable(Instant now) {
+        Criteria pending = Criteria.where("status").is(WebhookEvent.Status.PENDING);
+        Criteria abandoned = Criteria.where("status").is(WebhookEvent.Status.PROCESSING).and("lockedUntil").lte(now);
+        return new Criteria().orOperator(pending, abandoned);
+    }
+}
@@ -1,8 +1,15 @@
 package com.project.invoiceGeneratorApi.security;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -13,65 +20,212 @@ import java.security.spec.RSAPublicKeySpec;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ClerkJwksprovider {
 
     // used for injecting values from application.properties. It's a form of dependency injection.
     @Value("${clerk.jwks-url}")
     private String jwksUrl;
 
-    //This map serves as a cache to verify a token
-    private final Map<String, PublicKey> keyCache = new HashMap<>();
-
-    //records the last time the application successfully fetched the JWKS from the external URL.
-    private long lastFetchTime = 0;
-
     //defines the Time-To-Live (TTL) for the cache.
-    //It sets a rule that the keys in the cache are considered valid for up to one hour.
+    //It sets a rule that the keys in the cache are considered fresh for up to one hour.
     private static final long CACHE_TTL = 3600000;     // 1 hour in milliseconds
 
-    //This is for thread safety.
-    //multiple threads might try to access and modify the keyCache and lastFetchTime fields at the same time.
-    private final ReentrantLock lock = new ReentrantLock();
+    //The background refresher re-fetches the keys ahead of the TTL, so request threads never wait for it.
+    private static final long REFRESH_INTERVAL = 3000000;     // 50 minutes in milliseconds
 
-    public PublicKey getPublicKey(String kid) throws Exception {
+    //An unknown kid may trigger at most one network refresh in this window.
+    //Tokens signed with bogus kids therefore can't be used to hammer Clerk's JWKS endpoint.
+    private static final long MIN_REFRESH_INTERVAL = 30000;     // 30 seconds in milliseconds
 
-        lock.lock();
+    //How long a kid that was still missing after a refresh is remembered as unknown.
+    private static final long NEGATIVE_CACHE_TTL = 300000;     // 5 minutes in milliseconds
+    private static final int NEGATIVE_CACHE_MAX_SIZE = 1024;
 
-        try {
-            // Check cache validity
-            // Checks if the public key for the requested kid already exists in the local cache.
-            if (keyCache.containsKey(kid) && System.currentTimeMillis() - lastFetchTime < CACHE_TTL) {
-                return keyCache.get(kid);
+    //The current key set. It is immutable and replaced as a whole, so readers never lock:
+    //a cache hit is a single volatile read plus a map lookup.
+    private final AtomicReference<KeySet> keySet = new AtomicReference<>(KeySet.EMPTY);
+
+    //The refresh currently in progress, if any. Concurrent callers join it instead of
+    //starting their own HTTP request (single-flight).
+    private final AtomicReference<CompletableFuture<KeySet>> inFlightRefresh = new AtomicReference<>();
+
+    //kid -> time until which it is considered unknown.
+    private final Map<String, Long> unknownKids = new ConcurrentHashMap<>();
+
+    //Set while a stale-triggered refresh is queued, so a burst of requests queues only one.
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    //records the last time a refresh was started, successful or not. Moved forward with a CAS,
+    //so of all the callers that find the window open only one gets to start the refresh.
+    private final AtomicLong lastRefreshAttempt = new AtomicLong();
+
+    //RestTemplate is thread-safe, so a single instance is shared. The timeouts bound how
+    //long a refresh can take when Clerk is slow.
+    private final RestTemplate restTemplate = createRestTemplate();
+
+    //Metrics: how often request threads find their key in memory, and how long Clerk takes to answer.
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "clerk-jwks-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClerkJwksprovider(MeterRegistry meterRegistry) {
+        this.cacheHits = meterRegistry.counter("clerk.jwks.lookups", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("clerk.jwks.lookups", "result", "miss");
+        this.refreshSuccess = refreshTimer(meterRegistry, "success");
+        this.refreshFailure = refreshTimer(meterRegistry, "failure");
+    }
+
+    @PostConstruct
+    void startBackgroundRefresh() {
+        // Warm the cache right away, then keep it fresh ahead of the TTL.
+        refresher.scheduleWithFixedDelay(this::backgroundRefresh, 0, REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopBackgroundRefresh() {
+        refresher.shutdownNow();
+    }
+
+    public PublicKey getPublicKey(String kid) {
+
+        // Fast path: no locks, no I/O. A stale key set is still served (stale-while-revalidate);
+        // we only kick off an asynchronous refresh so a later request sees fresh keys.
+        KeySet current = keySet.get();
+        PublicKey cached = current.keys().get(kid);
+        if (cached != null) {
+            cacheHits.increment();
+            if (current.isExpired() && refreshQueued.compareAndSet(false, true)) {
+                refresher.execute(this::backgroundRefresh);
             }
+            return cached;
+        }
 
-            // Refresh keys if the cache is expired or the key is missing
-            //It calls the refreshKeys() method, which performs a new network request to the JWKS URL,
-            // downloads the latest key set, and updates the keyCache.
-            refreshKeys();
+        // Unknown kid. Either Clerk rotated its keys or the token is bogus.
+        cacheMisses.increment();
+        Long unknownUntil = unknownKids.get(kid);
+        if (unknownUntil != null && unknownUntil > System.currentTimeMillis()) {
+            throw new KeyNotFoundException("Public key with kid: " + kid + " is unknown.");
+        }
 
-            // After refresh, check if the key is now available
-            if(keyCache.containsKey(kid)) {
-                return keyCache.get(kid);
-            } else {
-                throw new KeyNotFoundException("Public key with kid: " + kid + " not found after refreshing JWKS.");
+        // Join a refresh that is already running (e.g. the startup warm-up); otherwise start one
+        // at most once per MIN_REFRESH_INTERVAL on behalf of unknown kids. Joining never starts a
+        // fetch of its own, even if the running one finishes first.
+        CompletableFuture<KeySet> running = inFlightRefresh.get();
+        boolean fetched = false;
+        if (running != null || claimRefreshWindow()) {
+            try {
+                current = running != null ? join(running) : refreshKeys();
+                fetched = true;
+            } catch (RuntimeException e) {
+                // Keep serving the key set we have. Only fail if there is nothing to serve at all.
+                if (keySet.get() == KeySet.EMPTY) {
+                    throw e;
+                }
+                log.warn("JWKS refresh failed, continuing with the cached key set: {}", e.getMessage());
+                current = keySet.get();
             }
+        }
+
+        if (current == KeySet.EMPTY) {
+            throw new FetchingKeysException("No JWKS keys available yet from URL: " + jwksUrl, null);
+        }
+
+        // After refresh, check if the key is now available
+        PublicKey refreshed = current.keys().get(kid);
+        if (refreshed != null) {
+            return refreshed;
+        }
+
+        // Only a key set fetched just now proves the kid doesn't exist. If the refresh was throttled
+        // or failed, the kid may be a freshly rotated key; the next request after the throttle window
+        // will refresh again, so don't lock it out for NEGATIVE_CACHE_TTL.
+        if (fetched) {
+            rememberUnknownKid(kid);
+        }
+        throw new KeyNotFoundException("Public key with kid: " + kid + " not found after refreshing JWKS.");
+    }
+
+    private void backgroundRefresh() {
+        refreshQueued.set(false);
+        // A request thread may have just refreshed (or just failed to); don't fetch twice in a row.
+        if (!claimRefreshWindow()) {
+            return;
+        }
+        try {
+            refreshKeys();
+        } catch (RuntimeException e) {
+            log.warn("Background JWKS refresh failed, continuing with the cached key set: {}", e.getMessage());
+        }
+    }
+
+    //Opens the next refresh window if MIN_REFRESH_INTERVAL has passed. The check and the update
+    //are one compareAndSet, so when several callers see the window open at once, exactly one wins.
+    private boolean claimRefreshWindow() {
+        long last = lastRefreshAttempt.get();
+        long now = System.currentTimeMillis();
+        return now - last >= MIN_REFRESH_INTERVAL && lastRefreshAttempt.compareAndSet(last, now);
+    }
+
+    //Single-flight refresh: the first caller performs the HTTP request, everyone arriving while
+    //it is in progress waits for that same result instead of issuing their own.
+    //Callers claim the refresh window first.
+    private KeySet refreshKeys() {
+        CompletableFuture<KeySet> mine = new CompletableFuture<>();
+        CompletableFuture<KeySet> existing = inFlightRefresh.compareAndExchange(null, mine);
+
+        if (existing != null) {
+            return join(existing);
+        }
+
+        long started = System.nanoTime();
+        try {
+            KeySet fresh = fetchKeys();
+            keySet.set(fresh);
+            unknownKids.clear();
+            refreshSuccess.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            mine.complete(fresh);
+            return fresh;
+        } catch (RuntimeException e) {
+            refreshFailure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            mine.completeExceptionally(e);
+            throw e;
         } finally {
-            lock.unlock(); // Always release the lock in a finally block
+            inFlightRefresh.set(null);
         }
+    }
 
+    private static KeySet join(CompletableFuture<KeySet> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
     }
 
     //purpose is to safely and reliably fetch the latest set of public keys from a remote URL,
     // parse them, and prepare them to be used for JWT verification.
-    private void refreshKeys() throws  Exception {
+    private KeySet fetchKeys() {
 
-        // Use a rest template for better HTTP handling
-        //RestTemplate is a powerful tool in Spring for making synchronous HTTP requests.
-        // It's used here to perform the GET request to fetch the JWKS.
-        RestTemplate restTemplate = new RestTemplate();
         JsonNode jwks;
 
         try {
@@ -84,16 +238,21 @@ public class ClerkJwksprovider {
             throw new FetchingKeysException("Failed to fetch JWKS from URL: " + jwksUrl, e);
         }
 
+        return new KeySet(parseKeys(jwks), System.currentTimeMillis());
+    }
+
+    //Turns a JWKS document into kid -> public key. Also used by the reactive key provider.
+    public static Map<String, PublicKey> parseKeys(JsonNode jwks) {
+
         if (jwks == null || !jwks.has("keys")) {
             throw new InvalidJwksException("JWKS response is invalid or missing 'keys' array.");
         }
 
         JsonNode keys = jwks.get("keys");
 
-        //A temporary map is created.
-        // All the new keys are added to this temporary map first.  This ensures that the main keyCache is not in an inconsistent state while new keys are being added.
-        // Once the loop is complete, the old cache is replaced with this new one in a single, atomic operation
-        Map<String, PublicKey> newKeyCache = new HashMap<>();
+        //All the new keys are collected into a fresh map first and published as one immutable
+        //snapshot, so readers either see the complete old key set or the complete new one.
+        Map<String, PublicKey> newKeys = new HashMap<>();
 
         for (JsonNode keyNode : keys) {
             if (keyNode.has("kid") && keyNode.has("kty") && keyNode.has("alg") && keyNode.has("n") && keyNode.has("e")) {
@@ -110,18 +269,23 @@ public class ClerkJwksprovider {
 
                     // Correctly use URL-safe decoding for both n and e
                     PublicKey publicKey = createPublicKey(n, e);
-                    newKeyCache.put(kid, publicKey);
+                    newKeys.put(kid, publicKey);
                 }
             }
         }
 
-        // Atomically replace the cache to avoid race conditions
-        keyCache.clear();
-        keyCache.putAll(newKeyCache);
-        lastFetchTime = System.currentTimeMillis();
+        return Map.copyOf(newKeys);
+    }
+
+    private void rememberUnknownKid(String kid) {
+        // Keep the negative cache bounded even if a client cycles through random kids.
+        if (unknownKids.size() >= NEGATIVE_CACHE_MAX_SIZE) {
+            unknownKids.clear();
+        }
+        unknownKids.put(kid, System.currentTimeMillis() + NEGATIVE_CACHE_TTL);
     }
 
-    private PublicKey createPublicKey(String modulus, String exponent) throws Exception{
+    private static PublicKey createPublicKey(String modulus, String exponent) {
 
         //The modulus (n) and exponent (e) values in a JWK are not plain text;
         //they are Base64 URL-encoded. Before they can be used to create a public key, they
@@ -134,9 +298,37 @@ public class ClerkJwksprovider {
         BigInteger exponentBigInt = new BigInteger(1, exponentBytes);
 
         RSAPublicKeySpec spec = new RSAPublicKeySpec(modulusBigInt, exponentBigInt);
-        KeyFactory factory = KeyFactory.getInstance("RSA");
 
-        return factory.generatePublic(spec);
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            return factory.generatePublic(spec);
+        } catch (Exception e) {
+            throw new InvalidJwksException("JWKS contains an invalid RSA key.", e);
+        }
+    }
+
+    private static Timer refreshTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("clerk.jwks.refresh")
+                .description("Time to fetch and parse Clerk's JWKS")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static RestTemplate createRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(2000);
+        requestFactory.setReadTimeout(5000);
+        return new RestTemplate(requestFactory);
+    }
+
+    //Immutable snapshot of the fetched keys together with the time they were fetched.
+    private record KeySet(Map<String, PublicKey> keys, long fetchedAt) {
+
+        static final KeySet EMPTY = new KeySet(Map.of(), 0);
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - fetchedAt >= CACHE_TTL;
+        }
     }
 
     // Custom exceptions for clarity
@@ -156,6 +348,10 @@ public class ClerkJwksprovider {
         public InvalidJwksException(String message) {
             super(message);
         }
+
+        public InvalidJwksException(String message, Throwable cause) {
+            super(message, cause);
+        }
     }
 
 }
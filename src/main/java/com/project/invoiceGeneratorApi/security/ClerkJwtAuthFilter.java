@@ -1,18 +1,13 @@
 package com.project.invoiceGeneratorApi.security;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jws;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,22 +15,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.PublicKey;
-import java.util.Base64;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class ClerkJwtAuthFilter extends OncePerRequestFilter {
 
-    //Injects the Clerk Issuer URL from your application properties.
-    @Value("${clerk.issuer}")
-    private String clerkIssuer;
-
-    //Injects your custom JWKS provider bean.
-    private final ClerkJwksprovider jwksprovider;
+    //Injects the token verifier, which owns the JWKS lookup and the verified-token cache.
+    private final ClerkTokenVerifier tokenVerifier;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -59,30 +48,12 @@ public class ClerkJwtAuthFilter extends OncePerRequestFilter {
             //Correctly extracts the token string by removing "Bearer " (7 characters) from the header.
             String token = authHeader.substring(7);
 
-            // Splits the JWT into its three parts (header, payload, signature).
-            String[] chunks = token.split("\\.");
-
-            //Decodes the Base64 URL-encoded header.
-            String headerJson = new String(Base64.getUrlDecoder().decode(chunks[0]));
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode headerNode = mapper.readTree(headerJson);
-
-            String kid = headerNode.get("kid").asText();
-
-            PublicKey publicKey = jwksprovider.getPublicKey(kid);
-
-            Jws<Claims> claimsJws = Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .setAllowedClockSkewSeconds(60)
-                    .requireIssuer(clerkIssuer)
-                    .build()
-                    .parseClaimsJws(token);
-
-            //Gets the payload (claims) of the JWT.
-            Claims claims = claimsJws.getBody();
+            //Verifies signature, issuer and expiry. Repeat requests with the same token are
+            //answered from the verifier's cache without another RSA verification.
+            VerifiedToken verifiedToken = tokenVerifier.verify(token);
 
             //Extracts the user's ID from the sub (subject) claim.
-            String clerkUserId = claims.getSubject();
+            String clerkUserId = verifiedToken.subject();
 
             List<SimpleGrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
 
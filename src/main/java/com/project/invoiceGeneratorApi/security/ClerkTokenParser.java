@@ -0,0 +1,81 @@
+package com.project.invoiceGeneratorApi.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// PURPOSE: The CPU-only part of verifying a Clerk session token: reading the kid from the
+// header and checking signature, issuer and expiry against a given public key. Shared by the
+// servlet (ClerkTokenVerifier) and reactive token verifiers, which differ only in how they
+// obtain the key.
+
+public class ClerkTokenParser {
+
+    // ObjectMapper is thread-safe once configured; no need to build one per request.
+    private static final ObjectMapper HEADER_MAPPER = new ObjectMapper();
+
+    private final String clerkIssuer;
+
+    // kid -> parser bound to that kid's current public key. JwtParser is immutable and thread-safe.
+    private final Map<String, KeyedParser> parsers = new ConcurrentHashMap<>();
+
+    public ClerkTokenParser(String clerkIssuer) {
+        this.clerkIssuer = clerkIssuer;
+    }
+
+    // Throws the usual jjwt exceptions (ExpiredJwtException, SignatureException, ...) for invalid tokens.
+    public VerifiedToken parse(String token, String kid, PublicKey publicKey) {
+        Claims claims = parserFor(kid, publicKey).parseClaimsJws(token).getBody();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    public static String readKid(String token) {
+        // Splits the JWT into its three parts (header, payload, signature) and decodes the header.
+        int headerEnd = token.indexOf('.');
+        if (headerEnd <= 0) {
+            throw new MalformedJwtException("JWT is missing its header.");
+        }
+
+        try {
+            JsonNode headerNode = HEADER_MAPPER.readTree(Base64.getUrlDecoder().decode(token.substring(0, headerEnd)));
+            JsonNode kid = headerNode.get("kid");
+            if (kid == null) {
+                throw new MalformedJwtException("JWT header has no 'kid'.");
+            }
+            return kid.asText();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MalformedJwtException("JWT header is not valid Base64 JSON.", e);
+        }
+    }
+
+    private JwtParser parserFor(String kid, PublicKey publicKey) {
+        KeyedParser keyedParser = parsers.get(kid);
+
+        // Rebuild when the kid is new or Clerk rotated the key behind it.
+        if (keyedParser == null || !keyedParser.publicKey().equals(publicKey)) {
+            JwtParser parser = Jwts.parserBuilder()
+                    .setSigningKey(publicKey)
+                    .setAllowedClockSkewSeconds(60)
+                    .requireIssuer(clerkIssuer)
+                    .build();
+            keyedParser = new KeyedParser(publicKey, parser);
+            parsers.put(kid, keyedParser);
+        }
+        return keyedParser.parser();
+    }
+
+    private record KeyedParser(PublicKey publicKey, JwtParser parser) {
+    }
+}
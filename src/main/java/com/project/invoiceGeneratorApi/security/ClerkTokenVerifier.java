@@ -0,0 +1,68 @@
+package com.project.invoiceGeneratorApi.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Verifies Clerk session tokens (RS256) and caches the outcome.
+// A token seen before costs one SHA-256 and a map lookup; only the first request with a
+// given token pays for header parsing and the RSA signature check.
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClerkTokenVerifier {
+
+    // Clerk session tokens are short-lived, so this comfortably covers all active users.
+    private static final int TOKEN_CACHE_MAX_SIZE = 10000;
+
+    private final ClerkJwksprovider jwksprovider;
+    private final ClerkTokenParser tokenParser;
+
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(TOKEN_CACHE_MAX_SIZE);
+
+    private final VerificationTimers timers;
+
+    public ClerkTokenVerifier(@Value("${clerk.issuer}") String clerkIssuer, ClerkJwksprovider jwksprovider,
+                              MeterRegistry meterRegistry) {
+        this.jwksprovider = jwksprovider;
+        this.tokenParser = new ClerkTokenParser(clerkIssuer);
+        this.timers = new VerificationTimers(meterRegistry);
+    }
+
+    public VerifiedToken verify(String token) {
+        long started = System.nanoTime();
+        String tokenHash = VerifiedTokenCache.hash(token);
+
+        VerifiedToken cached = tokenCache.get(tokenHash);
+        if (cached != null) {
+            timers.cached().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = verifyUncached(token);
+        } catch (RuntimeException e) {
+            timers.failed().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        timers.verified().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        // Tokens without an expiry are verified every time rather than cached forever.
+        if (verified.expiresAt() != null) {
+            tokenCache.put(tokenHash, verified);
+        }
+        return verified;
+    }
+
+    // Full verification without consulting the cache. Throws the usual jjwt exceptions
+    // (ExpiredJwtException, SignatureException, ...) for invalid tokens.
+    public VerifiedToken verifyUncached(String token) {
+        String kid = ClerkTokenParser.readKid(token);
+        PublicKey publicKey = jwksprovider.getPublicKey(kid);
+        return tokenParser.parse(token, kid, publicKey);
+    }
+}
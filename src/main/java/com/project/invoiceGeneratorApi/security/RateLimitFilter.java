@@ -0,0 +1,144 @@
+package com.project.invoiceGeneratorApi.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Per-route request budgets, answered with 429 and Retry-After once spent. Runs as a
+// plain servlet filter after the Spring Security chain, so requests are counted against the
+// clerk id that ClerkJwtAuthFilter authenticated; the public webhook endpoint is counted per
+// client IP instead (set server.forward-headers-strategy behind a proxy so that's the real
+// client). Campaigns fan out to many sends, so they get their own, much smaller budget; the
+// global SMTP budget is charged per message by EmailDeliveryWorker, not per request here.
+// The first matching route wins; public assets, the actuator and CORS preflights are not limited.
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final List<Route> routes;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           MeterRegistry meterRegistry,
+                           @Value("${invoice.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${invoice.rate-limit.email.per-minute:20}") int emailPerMinute,
+                           @Value("${invoice.rate-limit.email.burst:10}") int emailBurst,
+                           @Value("${invoice.rate-limit.email-campaigns.per-minute:1}") int campaignsPerMinute,
+                           @Value("${invoice.rate-limit.email-campaigns.burst:2}") int campaignsBurst,
+                           @Value("${invoice.rate-limit.bulk.per-minute:10}") int bulkPerMinute,
+                           @Value("${invoice.rate-limit.bulk.burst:5}") int bulkBurst,
+                           @Value("${invoice.rate-limit.webhooks.per-minute:1200}") int webhooksPerMinute,
+                           @Value("${invoice.rate-limit.webhooks.burst:300}") int webhooksBurst,
+                           @Value("${invoice.rate-limit.reads.per-minute:1200}") int readsPerMinute,
+                           @Value("${invoice.rate-limit.reads.burst:100}") int readsBurst,
+                           @Value("${invoice.rate-limit.writes.per-minute:300}") int writesPerMinute,
+                           @Value("${invoice.rate-limit.writes.burst:60}") int writesBurst) {
+        this.enabled = enabled;
+        this.routes = List.of(
+                new Route("POST", "/api/emails/campaigns", false,
+                        rateLimiter.keyed("email-campaigns", campaignsPerMinute, campaignsBurst), meterRegistry),
+                new Route("POST", "/api/emails/", false,
+                        rateLimiter.keyed("email", emailPerMinute, emailBurst), meterRegistry),
+                new Route("POST", "/api/invoices/batch", false,
+                        rateLimiter.keyed("bulk", bulkPerMinute, bulkBurst), meterRegistry),
+                new Route("GET", "/api/invoices/export", false,
+                        rateLimiter.keyed("export", bulkPerMinute, bulkBurst), meterRegistry),
+                new Route(null, "/api/webhooks/", true,
+                        rateLimiter.keyed("webhooks", webhooksPerMinute, webhooksBurst), meterRegistry),
+                new Route("GET", "/api/", false,
+                        rateLimiter.keyed("reads", readsPerMinute, readsBurst), meterRegistry),
+                new Route(null, "/api/", false,
+                        rateLimiter.keyed("writes", writesPerMinute, writesBurst), meterRegistry));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled
+                || !path.startsWith("/api/")
+                || path.startsWith("/api/assets/")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = match(request.getMethod(), request.getRequestURI());
+        if (route != null) {
+            long wait = route.limit.tryAcquire(route.byIp ? request.getRemoteAddr() : subject(request), System.nanoTime());
+            if (wait > 0) {
+                reject(response, route, route.limit.name(), wait);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Route match(String method, String path) {
+        for (Route route : routes) {
+            if ((route.method == null || route.method.equals(method)) && path.startsWith(route.pathPrefix)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // The clerk id for authenticated requests. Anything else on an /api route has either been
+    // refused by the security chain already or is public, and is counted per IP.
+    private static String subject(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return request.getRemoteAddr();
+        }
+        return authentication.getName();
+    }
+
+    private static void reject(HttpServletResponse response, Route route, String limit, long waitNanos) throws IOException {
+        route.rejected.increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Rate limit '"
+                + limit + "' exceeded, retry in " + retryAfter + "s.\"}");
+    }
+
+    private static final class Route {
+
+        private final String method;
+        private final String pathPrefix;
+        private final boolean byIp;
+        private final RateLimiter.KeyedLimit limit;
+        private final Counter rejected;
+
+        private Route(String method, String pathPrefix, boolean byIp, RateLimiter.KeyedLimit limit,
+                      MeterRegistry meterRegistry) {
+            this.method = method;
+            this.pathPrefix = pathPrefix;
+            this.byIp = byIp;
+            this.limit = limit;
+            this.rejected = Counter.builder("http.server.requests.throttled")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("limit", limit.name())
+                    .register(meterRegistry);
+        }
+    }
+}
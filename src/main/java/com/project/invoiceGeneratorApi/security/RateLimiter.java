@@ -0,0 +1,162 @@
+package com.project.invoiceGeneratorApi.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Owns the token buckets behind RateLimitFilter. A KeyedLimit gives every subject
+// (clerk id or client IP) its own TokenBucket in a ConcurrentHashMap; a GlobalLimit shares one
+// budget across all callers, split into per-CPU stripes so concurrent requests don't all CAS
+// the same word. Memory stays bounded: a background sweep drops buckets that have refilled
+// completely (they hold no state a new bucket wouldn't), and once a limit tracks 'max-keys'
+// subjects, new subjects share one overflow bucket until the next sweep makes room.
+
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private final int maxKeys;
+    private final long sweepIntervalMs;
+    private final List<KeyedLimit> keyedLimits = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService sweeper;
+
+    public RateLimiter(@Value("${invoice.rate-limit.max-keys:100000}") int maxKeys,
+                       @Value("${invoice.rate-limit.sweep-interval-ms:30000}") long sweepIntervalMs) {
+        this.maxKeys = maxKeys;
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rate-limit-sweeper").daemon().factory());
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    public KeyedLimit keyed(String name, int permitsPerMinute, int burst) {
+        KeyedLimit limit = new KeyedLimit(name, intervalOf(permitsPerMinute), burst, maxKeys);
+        keyedLimits.add(limit);
+        return limit;
+    }
+
+    public GlobalLimit global(String name, int permitsPerMinute, int burst) {
+        return global(name, permitsPerMinute, burst, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Stripe count is a parameter so tests can exercise striping on any machine.
+    GlobalLimit global(String name, int permitsPerMinute, int burst, int maxStripes) {
+        return new GlobalLimit(name, intervalOf(permitsPerMinute), burst, maxStripes);
+    }
+
+    public void sweep() {
+        long now = System.nanoTime();
+        for (KeyedLimit limit : keyedLimits) {
+            int before = limit.buckets.size();
+            limit.buckets.values().removeIf(bucket -> bucket.isIdle(now));
+            int evicted = before - limit.buckets.size();
+            if (evicted > 0) {
+                log.debug("Evicted {} idle '{}' rate-limit buckets, {} left", evicted, limit.name, limit.buckets.size());
+            }
+        }
+    }
+
+    private static long intervalOf(int permitsPerMinute) {
+        return TimeUnit.MINUTES.toNanos(1) / Math.max(1, permitsPerMinute);
+    }
+
+    public static final class KeyedLimit {
+
+        private final String name;
+        private final long interval;
+        private final int burst;
+        private final int maxKeys;
+        private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final TokenBucket overflow;
+
+        private KeyedLimit(String name, long interval, int burst, int maxKeys) {
+            this.name = name;
+            this.interval = interval;
+            this.burst = burst;
+            this.maxKeys = maxKeys;
+            this.overflow = new TokenBucket(interval, burst, System.nanoTime());
+        }
+
+        public String name() {
+            return name;
+        }
+
+        // Returns 0 when the request may proceed, otherwise the nanos until it would be allowed.
+        public long tryAcquire(String key, long now) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.size() < maxKeys
+                        ? buckets.computeIfAbsent(key, k -> new TokenBucket(interval, burst, now))
+                        : overflow;
+            }
+            // A sweep may drop this bucket concurrently; at worst that forgets one permit.
+            return bucket.tryAcquire(now);
+        }
+
+        public int size() {
+            return buckets.size();
+        }
+    }
+
+    public static final class GlobalLimit {
+
+        private final String name;
+        private final TokenBucket[] stripes;
+        private final int mask;
+
+        private GlobalLimit(String name, long interval, int burst, int maxStripes) {
+            this.name = name;
+            // Each stripe refills at 1/n of the rate and holds 1/n of the burst, so together
+            // they allow the configured budget. Never more stripes than burst permits; when the
+            // burst doesn't divide evenly, the first burst % n stripes hold one permit more.
+            int count = Integer.highestOneBit(Math.max(1, Math.min(maxStripes, burst)));
+            long now = System.nanoTime();
+            this.stripes = new TokenBucket[count];
+            for (int i = 0; i < count; i++) {
+                int stripeBurst = burst / count + (i < burst % count ? 1 : 0);
+                stripes[i] = new TokenBucket(interval * count, stripeBurst, now);
+            }
+            this.mask = count - 1;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        // Starts at the caller's stripe and moves on when it's empty, so one busy stripe doesn't
+        // refuse requests while the others still have permits.
+        public long tryAcquire(long now) {
+            int start = (int) Thread.currentThread().threadId() & mask;
+            long wait = Long.MAX_VALUE;
+            for (int i = 0; i < stripes.length; i++) {
+                long stripeWait = stripes[(start + i) & mask].tryAcquire(now);
+                if (stripeWait == 0) {
+                    return 0;
+                }
+                wait = Math.min(wait, stripeWait);
+            }
+            return wait;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.invoiceGeneratorApi.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+// PURPOSE: Checks the Svix signature of Clerk webhooks before anything is stored. Svix signs
+// "<svix-id>.<svix-timestamp>.<body>" with HMAC-SHA256 under the endpoint secret ("whsec_" +
+// base64) and sends one or more "v1,<base64 signature>" entries, space separated, while a
+// secret is being rotated. Timestamps more than five minutes off are refused, so a captured
+// request can't be replayed later. Shared by the servlet and reactive webhook controllers.
+
+@Component
+public class SvixWebhookVerifier {
+
+    private static final String SECRET_PREFIX = "whsec_";
+    private static final long TOLERANCE_SECONDS = 300;
+
+    private final SecretKeySpec key;
+
+    public SvixWebhookVerifier(@Value("${clerk.webhook.secret}") String secret) {
+        String encoded = secret.startsWith(SECRET_PREFIX) ? secret.substring(SECRET_PREFIX.length()) : secret;
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(encoded), "HmacSHA256");
+    }
+
+    public boolean verify(String svixId, String svixTimestamp, String svixSignature, String payload) {
+        return verify(svixId, svixTimestamp, svixSignature, payload, System.currentTimeMillis() / 1000);
+    }
+
+    boolean verify(String svixId, String svixTimestamp, String svixSignature, String payload, long nowSeconds) {
+        if (svixId == null || svixTimestamp == null || svixSignature == null || payload == null) {
+            return false;
+        }
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(svixTimestamp.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (Math.abs(nowSeconds - timestamp) > TOLERANCE_SECONDS) {
+            return false;
+        }
+
+        byte[] expected = sign(svixId + "." + svixTimestamp + "." + payload);
+        for (String entry : svixSignature.trim().split(" +")) {
+            int comma = entry.indexOf(',');
+            if (comma < 0 || !"v1".equals(entry.substring(0, comma))) {
+                continue;
+            }
+            byte[] actual;
+            try {
+                actual = Base64.getDecoder().decode(entry.substring(comma + 1));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            // Constant time, so the comparison doesn't leak how much of a forged signature matched.
+            if (MessageDigest.isEqual(expected, actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            // Every JVM is required to provide HmacSHA256.
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.project.invoiceGeneratorApi.security;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// PURPOSE: A token bucket kept as a single long, so taking a permit is one compare-and-set and
+// never blocks. It stores the time at which the bucket will be full again (the GCRA
+// formulation): each permit pushes that time 'interval' further out, and a request is refused
+// when it would land more than 'burst' permits ahead of now. Refilling needs no timer or
+// separate token count, and a bucket whose full-again time has passed is indistinguishable
+// from a new one, which is what lets RateLimiter drop idle buckets without losing anything.
+
+public final class TokenBucket {
+
+    private static final VarHandle FULL_AT;
+
+    static {
+        try {
+            FULL_AT = MethodHandles.lookup().findVarHandle(TokenBucket.class, "fullAt", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long interval;
+    private final long tolerance;
+
+    @SuppressWarnings("unused") // updated through FULL_AT
+    private volatile long fullAt;
+
+    // 'interval' is the time in nanos for one permit to refill; 'burst' the number of permits
+    // that can be taken at once from a full bucket.
+    public TokenBucket(long interval, int burst, long now) {
+        this.interval = interval;
+        this.tolerance = interval * Math.max(1, burst);
+        this.fullAt = now;
+    }
+
+    // Returns 0 when a permit was taken, otherwise the nanos until one will be available.
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt;
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (FULL_AT.compareAndSet(this, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean isIdle(long now) {
+        return fullAt <= now;
+    }
+}
@@ -0,0 +1,24 @@
+package com.project.invoiceGeneratorApi.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// PURPOSE: The 'clerk.token.verification' timers, one per outcome. Shared by the servlet and
+// reactive token verifiers so both stacks report under the same names.
+//   cached   - token found in VerifiedTokenCache
+//   verified - full verification (header, key lookup, RSA signature) succeeded
+//   failed   - token rejected or its key could not be found
+
+public record VerificationTimers(Timer cached, Timer verified, Timer failed) {
+
+    public VerificationTimers(MeterRegistry meterRegistry) {
+        this(timer(meterRegistry, "cached"), timer(meterRegistry, "verified"), timer(meterRegistry, "failed"));
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("clerk.token.verification")
+                .description("Time to authenticate a request's Clerk session token")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
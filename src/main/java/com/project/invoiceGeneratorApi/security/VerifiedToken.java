@@ -0,0 +1,15 @@
+package com.project.invoiceGeneratorApi.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+// PURPOSE: Result of a successful JWT verification: who the caller is and until when it holds.
+// Instances are shared between requests through VerifiedTokenCache, so treat the claims as read-only.
+
+public record VerifiedToken(String subject, Claims claims, Instant expiresAt) {
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt.toEpochMilli() <= nowMillis;
+    }
+}
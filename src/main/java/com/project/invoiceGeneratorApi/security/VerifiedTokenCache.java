@@ -0,0 +1,60 @@
+package com.project.invoiceGeneratorApi.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// PURPOSE: Remembers tokens that already passed signature verification until their 'exp'.
+// Entries are keyed by a SHA-256 of the raw token, so no bearer tokens are kept in memory
+// and the key size is fixed. The cache is bounded: when full, expired entries are swept and,
+// if that is not enough, the cache starts over.
+
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public VerifiedToken get(String tokenHash) {
+        VerifiedToken token = entries.get(tokenHash);
+        if (token == null) {
+            return null;
+        }
+        if (token.isExpired(System.currentTimeMillis())) {
+            entries.remove(tokenHash, token);
+            return null;
+        }
+        return token;
+    }
+
+    public void put(String tokenHash, VerifiedToken token) {
+        if (entries.size() >= maxSize) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(tokenHash, token);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256.
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
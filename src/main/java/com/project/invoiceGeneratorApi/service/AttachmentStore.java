@@ -0,0 +1,86 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// PURPOSE: Keeps queued email attachments in GridFS until they are delivered.
+// Bytes are streamed in both directions: from the multipart temp file into GridFS chunks,
+// and from GridFS chunks into the SMTP connection. Heap use per attachment is one chunk
+// buffer, not the size of the file.
+
+@Service
+@Slf4j
+public class AttachmentStore {
+
+    private final GridFsTemplate gridFsTemplate;
+
+    // Caps how many attachment bytes (in KiB) may be uploading at the same time across all requests.
+    private final Semaphore inFlightKib;
+    private final int maxInFlightKib;
+
+    public AttachmentStore(GridFsTemplate gridFsTemplate,
+                           @Value("${invoice.email.max-in-flight-attachment-bytes:268435456}") long maxInFlightBytes) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.maxInFlightKib = (int) Math.min(Integer.MAX_VALUE, maxInFlightBytes / 1024);
+        this.inFlightKib = new Semaphore(maxInFlightKib);
+    }
+
+    public String store(MultipartFile file) throws IOException {
+        int permits = (int) Math.min(maxInFlightKib, Math.max(1, file.getSize() / 1024));
+
+        try {
+            if (!inFlightKib.tryAcquire(permits, 10, TimeUnit.SECONDS)) {
+                throw new AttachmentBudgetExceededException("Too many attachment bytes in flight, try again shortly.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AttachmentBudgetExceededException("Interrupted while waiting for attachment capacity.");
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            ObjectId id = gridFsTemplate.store(in, file.getOriginalFilename(), file.getContentType());
+            return id.toHexString();
+        } finally {
+            inFlightKib.release(permits);
+        }
+    }
+
+    // Each call to getInputStream() opens a fresh download stream, so the mail library
+    // may read the attachment more than once (e.g. to pick a transfer encoding).
+    public InputStreamSource open(String fileId) {
+        return () -> {
+            GridFSFile file = gridFsTemplate.findOne(query(where("_id").is(new ObjectId(fileId))));
+            if (file == null) {
+                throw new FileNotFoundException("Attachment not found: " + fileId);
+            }
+            return gridFsTemplate.getResource(file).getInputStream();
+        };
+    }
+
+    public void delete(String fileId) {
+        gridFsTemplate.delete(query(where("_id").is(new ObjectId(fileId))));
+        log.debug("Deleted attachment {}", fileId);
+    }
+
+    // Maps to 503: the upload may be retried once other uploads have finished.
+    public static class AttachmentBudgetExceededException extends RuntimeException {
+        public AttachmentBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+import com.project.invoiceGeneratorApi.repository.WebhookEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Set;
+
+// PURPOSE: Accepts Clerk webhooks into the webhook_events queue. Storing an event is one
+// insert keyed by svix-id, so a redelivery is recognised by the duplicate key and dropped.
+// ClerkWebhookWorker applies the queued events to the users collection.
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClerkWebhookService {
+
+    private static final Set<String> USER_EVENTS = Set.of("user.created", "user.updated", "user.deleted");
+
+    private final WebhookEventRepository webhookEventRepository;
+
+    // Returns false when the event was already received (or isn't one we handle).
+    public boolean enqueue(String svixId, String svixTimestamp, JsonNode root) {
+        String type = root.path("type").asText();
+        if (!USER_EVENTS.contains(type)) {
+            return false;
+        }
+
+        JsonNode data = root.path("data");
+        String clerkId = data.path("id").asText(null);
+        if (clerkId == null || clerkId.isBlank()) {
+            throw new IllegalArgumentException("Webhook " + svixId + " has no user id.");
+        }
+
+        WebhookEvent.WebhookEventBuilder event = WebhookEvent.builder()
+                .id(svixId)
+                .type(type)
+                .clerkId(clerkId)
+                .occurredAt(occurredAt(data, svixTimestamp))
+                .status(WebhookEvent.Status.PENDING)
+                .receivedAt(Instant.now());
+
+        if (!"user.deleted".equals(type)) {
+            event.email(data.path("email_addresses").path(0).path("email_address").asText())
+                    .firstName(data.path("first_name").asText())
+                    .lastName(data.path("last_name").asText())
+                    .photoUrl(data.path("image_url").asText());
+        }
+
+        try {
+            webhookEventRepository.insert(event.build());
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.info("Ignoring redelivered Clerk webhook {}", svixId);
+            return false;
+        }
+    }
+
+    // Clerk stamps user objects with updated_at (epoch millis); deletions only carry the
+    // svix-timestamp (epoch seconds) of the message.
+    private static Instant occurredAt(JsonNode data, String svixTimestamp) {
+        if (data.path("updated_at").canConvertToLong()) {
+            return Instant.ofEpochMilli(data.path("updated_at").asLong());
+        }
+        try {
+            return Instant.ofEpochSecond(Long.parseLong(svixTimestamp));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid svix-timestamp: " + svixTimestamp);
+        }
+    }
+}
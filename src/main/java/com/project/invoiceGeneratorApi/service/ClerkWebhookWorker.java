@@ -0,0 +1,107 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
+import com.project.invoiceGeneratorApi.repository.WebhookEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Drains the webhook_events queue. Each batch is collapsed to the latest event per
+// user and written with one bulk operation, so a burst of events (e.g. a bulk user import in
+// Clerk) costs a handful of round trips instead of a read and a write per event.
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClerkWebhookWorker {
+
+    // A claimed batch is reserved this long; if the pod dies it becomes claimable again.
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    private static final Comparator<WebhookEvent> BY_OCCURRENCE =
+            Comparator.comparing(WebhookEvent::getOccurredAt).thenComparing(WebhookEvent::getReceivedAt);
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${clerk.webhook.batch-size:500}")
+    private int batchSize;
+
+    @Value("${clerk.webhook.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ScheduledExecutorService worker;
+    private Timer lag;
+
+    @PostConstruct
+    void start() {
+        lag = Timer.builder("clerk.webhook.lag")
+                .description("Time from receiving a Clerk webhook to applying it to the users collection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        // The worker only waits on Mongo, so in virtual-thread mode it doesn't need a platform thread.
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("clerk-webhook-worker").factory()
+                : Thread.ofPlatform().name("clerk-webhook-worker").daemon().factory();
+        worker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        worker.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.shutdown();
+    }
+
+    private void drain() {
+        try {
+            List<WebhookEvent> batch;
+            do {
+                batch = webhookEventRepository.claimBatch(Instant.now(), LEASE, batchSize);
+                if (!batch.isEmpty()) {
+                    apply(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            // The claimed batch is retried once its lease expires. Never let an exception
+            // cancel the scheduled task.
+            log.error("Clerk webhook worker failed to drain the queue: {}", e.getMessage(), e);
+        }
+    }
+
+    private void apply(List<WebhookEvent> batch) {
+        // Only the newest event per user matters; the others are superseded.
+        Map<String, WebhookEvent> latest = new LinkedHashMap<>();
+        for (WebhookEvent event : batch) {
+            latest.merge(event.getClerkId(), event, (a, b) -> BY_OCCURRENCE.compare(a, b) >= 0 ? a : b);
+        }
+
+        userService.applyWebhookEvents(latest.values());
+        Instant appliedAt = Instant.now();
+        webhookEventRepository.markApplied(batch.stream().map(WebhookEvent::getId).toList(), appliedAt);
+        for (WebhookEvent event : batch) {
+            lag.record(Duration.between(event.getReceivedAt(), appliedAt));
+        }
+        log.info("Applied {} Clerk webhook events ({} users)", batch.size(), latest.size());
+    }
+}
@@ -0,0 +1,156 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.entity.Contact;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.repository.ContactRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// PURPOSE: The per-user directory of companies and customers. Saving an invoice files its
+// company, billing and shipping parties in the directory (deduplicated), and a client may
+// send just { "contactId": ... } for a party instead of retyping it. The invoice always keeps
+// a snapshot of the party as it was when saved, so later directory edits never change
+// invoices that were already issued.
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContactService {
+
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+    public static final int MAX_PREFIX_LENGTH = 100;
+
+    private final ContactRepository contactRepository;
+
+    public List<Contact> autocomplete(String clerkId, Contact.Kind kind, String prefix, int limit) {
+        String normalized = Contact.normalizeName(prefix);
+        if (normalized.length() > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Search text is too long.");
+        }
+        return contactRepository.findByPrefix(clerkId, kind, normalized, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    public boolean remove(String clerkId, String contactId) {
+        return contactRepository.deleteByClerkIdAndId(clerkId, contactId) > 0;
+    }
+
+    // Call before saving. Parties that only carry a contactId are filled in from the directory;
+    // every other named party is added to (or matched in) the directory and gets its contactId.
+    // Costs two round trips for any number of invoices. Returns one error per invoice, in
+    // order: null, or why the invoice can't be saved (an unknown contactId).
+    public List<String> attach(String clerkId, List<Invoice> invoices) {
+        Map<String, Contact> toUpsert = new LinkedHashMap<>();
+        Set<String> referenced = new HashSet<>();
+        for (Invoice invoice : invoices) {
+            for (Party party : parties(invoice)) {
+                if (party.hasDetails()) {
+                    toUpsert.putIfAbsent(party.key(), party.toContact());
+                } else if (party.contactId() != null) {
+                    referenced.add(party.contactId());
+                }
+            }
+        }
+
+        Map<String, Contact> byKey = contactRepository.upsertAll(clerkId, toUpsert.values(), Instant.now()).stream()
+                .collect(Collectors.toMap(ContactService::key, Function.identity(), (a, b) -> a));
+        Map<String, Contact> byId = referenced.isEmpty() ? Map.of()
+                : contactRepository.findByClerkIdAndIdIn(clerkId, referenced).stream()
+                        .collect(Collectors.toMap(Contact::getId, Function.identity()));
+
+        String[] errors = new String[invoices.size()];
+        for (int i = 0; i < invoices.size(); i++) {
+            for (Party party : parties(invoices.get(i))) {
+                if (party.hasDetails()) {
+                    Contact stored = byKey.get(party.key());
+                    party.linkTo().accept(stored != null ? stored.getId() : null);
+                } else if (party.contactId() != null) {
+                    Contact stored = byId.get(party.contactId());
+                    if (stored == null || stored.getKind() != party.kind()) {
+                        errors[i] = "Contact Not Found: " + party.contactId();
+                    } else {
+                        party.fillFrom().accept(stored);
+                    }
+                }
+            }
+        }
+        return Arrays.asList(errors);
+    }
+
+    // Company, Billing and Shipping have the same fields but no common type.
+    private record Party(Contact.Kind kind, String contactId, String name, String phone, String address,
+                         Consumer<String> linkTo, Consumer<Contact> fillFrom) {
+
+        boolean hasDetails() {
+            return name != null && !name.isBlank();
+        }
+
+        String key() {
+            return ContactService.key(kind, Contact.normalizeName(name), Contact.normalizePhone(phone));
+        }
+
+        Contact toContact() {
+            return Contact.builder()
+                    .kind(kind)
+                    .name(name.trim())
+                    .phone(phone)
+                    .address(address)
+                    .normalizedName(Contact.normalizeName(name))
+                    .normalizedPhone(Contact.normalizePhone(phone))
+                    .build();
+        }
+    }
+
+    private static List<Party> parties(Invoice invoice) {
+        List<Party> parties = new ArrayList<>(3);
+        Invoice.Company company = invoice.getCompany();
+        if (company != null) {
+            parties.add(new Party(Contact.Kind.COMPANY, company.getContactId(), company.getName(), company.getPhone(),
+                    company.getAddress(), company::setContactId, contact -> {
+                        company.setName(contact.getName());
+                        company.setPhone(contact.getPhone());
+                        company.setAddress(contact.getAddress());
+                    }));
+        }
+        Invoice.Billing billing = invoice.getBilling();
+        if (billing != null) {
+            parties.add(new Party(Contact.Kind.CUSTOMER, billing.getContactId(), billing.getName(), billing.getPhone(),
+                    billing.getAddress(), billing::setContactId, contact -> {
+                        billing.setName(contact.getName());
+                        billing.setPhone(contact.getPhone());
+                        billing.setAddress(contact.getAddress());
+                    }));
+        }
+        Invoice.Shipping shipping = invoice.getShipping();
+        if (shipping != null) {
+            parties.add(new Party(Contact.Kind.CUSTOMER, shipping.getContactId(), shipping.getName(), shipping.getPhone(),
+                    shipping.getAddress(), shipping::setContactId, contact -> {
+                        shipping.setName(contact.getName());
+                        shipping.setPhone(contact.getPhone());
+                        shipping.setAddress(contact.getAddress());
+                    }));
+        }
+        return parties;
+    }
+
+    private static String key(Contact contact) {
+        return key(contact.getKind(), contact.getNormalizedName(), contact.getNormalizedPhone());
+    }
+
+    private static String key(Contact.Kind kind, String normalizedName, String normalizedPhone) {
+        return kind + "\u0000" + normalizedName + "\u0000" + normalizedPhone;
+    }
+}
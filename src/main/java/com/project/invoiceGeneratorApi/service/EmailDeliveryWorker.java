@@ -0,0 +1,278 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.dto.RenderedInvoice;
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+import com.project.invoiceGeneratorApi.repository.EmailJobRepository;
+import com.project.invoiceGeneratorApi.security.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PURPOSE: Drains the email_jobs outbox. Each worker thread claims a batch of due jobs and
+// sends them over one SMTP connection, so the TLS handshake and AUTH are paid once per batch
+// instead of once per email. Failed jobs are retried with exponential backoff.
+// Every claimed job also takes a permit from the global 'email-global' budget, which protects
+// the SMTP provider's quota however the jobs were queued (single sends or whole campaigns).
+// Jobs beyond the budget go back to the queue until permits refill; they aren't refused.
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailDeliveryWorker {
+
+    // A claimed job is reserved this long; if the pod dies the job becomes claimable again.
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private static final List<EmailJob.Status> UNFINISHED = List.of(EmailJob.Status.PENDING, EmailJob.Status.SENDING);
+
+    private final EmailJobRepository emailJobRepository;
+    private final EmailService emailService;
+    private final InvoicePdfService invoicePdfService;
+    private final AttachmentStore attachmentStore;
+    private final MeterRegistry meterRegistry;
+    private final RateLimiter rateLimiter;
+
+    @Value("${invoice.email.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${invoice.email.batch-size:20}")
+    private int batchSize;
+
+    @Value("${invoice.email.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${invoice.email.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${invoice.rate-limit.enabled:true}")
+    private boolean rateLimited;
+
+    @Value("${invoice.rate-limit.email-global.per-minute:600}")
+    private int globalPerMinute;
+
+    @Value("${invoice.rate-limit.email-global.burst:100}")
+    private int globalBurst;
+
+    private ScheduledExecutorService workers;
+    private RateLimiter.GlobalLimit sendBudget;
+
+    @PostConstruct
+    void start() {
+        if (rateLimited) {
+            sendBudget = rateLimiter.global("email-global", globalPerMinute, globalBurst);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newScheduledThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "email-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerThreads; i++) {
+            workers.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdown();
+    }
+
+    // Triggers an immediate drain, e.g. right after a job was queued.
+    public void wakeUp() {
+        workers.execute(this::drain);
+    }
+
+    private void drain() {
+        try {
+            List<EmailJob> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task.
+            log.error("Email worker failed to drain the outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<EmailJob> claimBatch() {
+        List<EmailJob> batch = new ArrayList<>(batchSize);
+        Instant now = Instant.now();
+        while (batch.size() < batchSize) {
+            EmailJob job = emailJobRepository.claimNext(now, LEASE);
+            if (job == null) {
+                break;
+            }
+            // Claim first, so a permit is only spent on a job that exists.
+            long wait = sendBudget == null ? 0 : sendBudget.tryAcquire(System.nanoTime());
+            if (wait > 0) {
+                emailJobRepository.release(job.getId(), job.getClaimToken(), now.plusNanos(wait));
+                meterRegistry.counter("invoice.email.messages", "outcome", "throttled").increment();
+                break;
+            }
+            batch.add(job);
+        }
+        return batch;
+    }
+
+    private void deliver(List<EmailJob> batch) {
+        // Building messages doesn't need the SMTP connection, so large batches are
+        // prepared in parallel before the single send.
+        List<PreparedMessage> prepared = virtualThreads
+                ? prepareOnVirtualThreads(batch)
+                : (batch.size() > 1 ? batch.parallelStream() : batch.stream()).map(this::prepare).toList();
+
+        Map<MimeMessage, EmailJob> messages = new LinkedHashMap<>();
+        for (PreparedMessage message : prepared) {
+            if (message.error() != null) {
+                recordFailure(message.job(), message.error());
+            } else {
+                messages.put(message.message(), message.job());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        Timer.Sample send = Timer.start(meterRegistry);
+        try {
+            emailService.sendAll(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            // Without per-message details (e.g. the connection itself failed) nothing was sent.
+            if (failed.isEmpty()) {
+                failed = allFailed(messages, e);
+            }
+        } catch (MailException e) {
+            failed = allFailed(messages, e);
+        }
+        // One sample per SMTP batch: connect, AUTH and every message in it.
+        send.stop(meterRegistry.timer("invoice.email.send", "outcome", failed.isEmpty() ? "success" : "failure"));
+
+        Instant sentAt = Instant.now();
+        for (Map.Entry<MimeMessage, EmailJob> entry : messages.entrySet()) {
+            Exception failure = failed.get(entry.getKey());
+            if (failure == null) {
+                EmailJob job = entry.getValue();
+                if (!emailJobRepository.markSent(job.getId(), job.getClaimToken(), sentAt)) {
+                    log.warn("Email job {} was sent after its lease expired and another worker reclaimed it", job.getId());
+                }
+                meterRegistry.counter("invoice.email.messages", "outcome", "sent").increment();
+                releaseAttachment(job);
+            } else {
+                recordFailure(entry.getValue(), failure);
+            }
+        }
+        log.info("Delivered {} of {} queued invoice emails", messages.size() - failed.size(), messages.size());
+    }
+
+    // Preparing mostly waits (GridFS reads, PDF renders on the render pool), so one virtual
+    // thread per job beats the CPU-sized common pool. The SMTP send itself stays on the
+    // platform worker thread: Jakarta Mail's transport methods are synchronized, and blocking
+    // socket I/O inside a monitor would pin a virtual thread's carrier.
+    private List<PreparedMessage> prepareOnVirtualThreads(List<EmailJob> batch) {
+        List<Future<PreparedMessage>> futures;
+        // close() waits for every task, and prepare() never throws.
+        try (ExecutorService preparers = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = batch.stream()
+                    .map(job -> preparers.submit(() -> prepare(job)))
+                    .toList();
+        }
+        return futures.stream().map(Future::resultNow).toList();
+    }
+
+    private PreparedMessage prepare(EmailJob job) {
+        try {
+            MimeMessage message;
+            if (job.getInvoiceId() != null) {
+                RenderedInvoice pdf = invoicePdfService.renderInvoice(job.getClerkId(), job.getInvoiceId())
+                        .orElseThrow(() -> new RuntimeException("Invoice Not Found: " + job.getInvoiceId()));
+                message = emailService.createInvoiceMessage(job.getToEmail(), pdf.fileName(),
+                        new ByteArrayResource(pdf.content()), "application/pdf");
+            } else {
+                message = emailService.createInvoiceMessage(job.getToEmail(), job.getAttachmentName(),
+                        attachmentStore.open(job.getAttachmentFileId()), job.getAttachmentContentType());
+            }
+            return new PreparedMessage(job, message, null);
+        } catch (Exception e) {
+            return new PreparedMessage(job, null, e);
+        }
+    }
+
+    private void recordFailure(EmailJob job, Exception e) {
+        // job.getAttempts() already includes the attempt that just failed.
+        if (job.getAttempts() >= maxAttempts) {
+            log.error("Giving up on email job {} after {} attempts: {}", job.getId(), job.getAttempts(), e.getMessage());
+            meterRegistry.counter("invoice.email.messages", "outcome", "failed").increment();
+            if (emailJobRepository.markFailed(job.getId(), job.getClaimToken(), e.getMessage(), null)) {
+                releaseAttachment(job);
+            }
+            return;
+        }
+        meterRegistry.counter("invoice.email.messages", "outcome", "retry").increment();
+        emailJobRepository.markFailed(job.getId(), job.getClaimToken(), e.getMessage(),
+                Instant.now().plus(backoff(job.getAttempts())));
+    }
+
+    // Deletes the GridFS attachment once no job still needs it. Every job marks its own final
+    // state before checking, so the last job to finish always sees the others as done.
+    private void releaseAttachment(EmailJob job) {
+        String fileId = job.getAttachmentFileId();
+        if (fileId == null) {
+            return;
+        }
+        try {
+            if (!emailJobRepository.existsByAttachmentFileIdAndStatusIn(fileId, UNFINISHED)) {
+                attachmentStore.delete(fileId);
+            }
+        } catch (Exception e) {
+            log.warn("Could not release attachment {}: {}", fileId, e.getMessage());
+        }
+    }
+
+    // 30s, 1m, 2m, 4m, ... capped at one hour.
+    private static Duration backoff(int attempts) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, EmailJob> messages, Exception e) {
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        messages.keySet().forEach(message -> failed.put(message, e));
+        return failed;
+    }
+
+    private record PreparedMessage(EmailJob job, MimeMessage message, Exception error) {
+    }
+}
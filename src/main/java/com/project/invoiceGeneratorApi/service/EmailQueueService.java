@@ -0,0 +1,195 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.dto.CampaignRecipient;
+import com.project.invoiceGeneratorApi.dto.CampaignRecipientResult;
+import com.project.invoiceGeneratorApi.dto.EmailCampaignResponse;
+import com.project.invoiceGeneratorApi.dto.EmailJobStatus;
+import com.project.invoiceGeneratorApi.entity.EmailJob;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.repository.EmailJobRepository;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailQueueService {
+
+    private final EmailJobRepository emailJobRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final EmailDeliveryWorker emailDeliveryWorker;
+    private final AttachmentStore attachmentStore;
+
+    @Value("${invoice.email.campaign-max-recipients:1000}")
+    private int campaignMaxRecipients;
+
+    public EmailJobStatus enqueueInvoiceEmail(String clerkId, String toEmail, MultipartFile file) throws IOException {
+        EmailJob job = EmailJob.builder()
+                .clerkId(clerkId)
+                .toEmail(toEmail)
+                .attachmentName(file.getOriginalFilename())
+                .attachmentContentType(file.getContentType())
+                .attachmentFileId(attachmentStore.store(file))
+                .status(EmailJob.Status.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build();
+
+        return enqueue(job);
+    }
+
+    // Queues an email for a stored invoice; the worker renders the PDF when it sends.
+    public EmailJobStatus enqueueStoredInvoiceEmail(String clerkId, String toEmail, String invoiceId) {
+        if (!invoiceRepository.existsByClerkIdAndId(clerkId, invoiceId)) {
+            throw new IllegalArgumentException("Invoice Not Found: " + invoiceId);
+        }
+
+        EmailJob job = EmailJob.builder()
+                .clerkId(clerkId)
+                .toEmail(toEmail)
+                .invoiceId(invoiceId)
+                .status(EmailJob.Status.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build();
+
+        return enqueue(job);
+    }
+
+    // Queues one job per valid recipient with a single bulk insert. Invalid recipients are
+    // reported back individually instead of failing the whole campaign.
+    public EmailCampaignResponse enqueueCampaign(String clerkId, List<CampaignRecipient> recipients,
+                                                 Map<String, MultipartFile> files) throws IOException {
+        if (recipients.size() > campaignMaxRecipients) {
+            throw new IllegalArgumentException("A campaign can have at most " + campaignMaxRecipients + " recipients.");
+        }
+
+        String campaignId = new ObjectId().toHexString();
+        Instant now = Instant.now();
+        Set<String> ownedInvoiceIds = findOwnedInvoiceIds(clerkId, recipients);
+
+        // Each uploaded part is stored once, even if several recipients get the same file.
+        Map<String, String> storedParts = new HashMap<>();
+
+        // Keep request order: results[i] always belongs to recipients[i].
+        CampaignRecipientResult[] results = new CampaignRecipientResult[recipients.size()];
+        List<EmailJob> jobs = new ArrayList<>();
+        List<Integer> jobPositions = new ArrayList<>();
+
+        for (int i = 0; i < recipients.size(); i++) {
+            CampaignRecipient recipient = recipients.get(i);
+            String error = validate(recipient, files, ownedInvoiceIds);
+            if (error != null) {
+                results[i] = CampaignRecipientResult.rejected(recipient.getEmail(), error);
+                continue;
+            }
+
+            EmailJob.EmailJobBuilder job = EmailJob.builder()
+                    .clerkId(clerkId)
+                    .campaignId(campaignId)
+                    .toEmail(recipient.getEmail())
+                    .status(EmailJob.Status.PENDING)
+                    .nextAttemptAt(now);
+
+            if (recipient.getInvoiceId() != null) {
+                job.invoiceId(recipient.getInvoiceId());
+            } else {
+                MultipartFile file = files.get(recipient.getAttachment());
+                String fileId = storedParts.get(recipient.getAttachment());
+                if (fileId == null) {
+                    fileId = attachmentStore.store(file);
+                    storedParts.put(recipient.getAttachment(), fileId);
+                }
+                job.attachmentName(file.getOriginalFilename())
+                        .attachmentContentType(file.getContentType())
+                        .attachmentFileId(fileId);
+            }
+            jobs.add(job.build());
+            jobPositions.add(i);
+        }
+
+        List<EmailJob> saved = jobs.isEmpty() ? List.of() : emailJobRepository.saveAll(jobs);
+        for (int j = 0; j < saved.size(); j++) {
+            EmailJob job = saved.get(j);
+            results[jobPositions.get(j)] = new CampaignRecipientResult(job.getToEmail(), job.getId(), job.getStatus(), null);
+        }
+
+        log.info("Queued campaign {} for clerkId: {} ({} recipients, {} rejected)",
+                campaignId, clerkId, saved.size(), recipients.size() - saved.size());
+        if (!saved.isEmpty()) {
+            emailDeliveryWorker.wakeUp();
+        }
+
+        return new EmailCampaignResponse(campaignId, saved.size(), recipients.size() - saved.size(), List.of(results));
+    }
+
+    public List<EmailJobStatus> findCampaignStatus(String campaignId, String clerkId) {
+        return emailJobRepository.findStatusByCampaignIdAndClerkId(campaignId, clerkId);
+    }
+
+    public Optional<EmailJobStatus> findStatus(String jobId, String clerkId) {
+        return emailJobRepository.findStatusByIdAndClerkId(jobId, clerkId);
+    }
+
+    private EmailJobStatus enqueue(EmailJob job) {
+        job = emailJobRepository.save(job);
+        log.info("Queued invoice email job {} for clerkId: {}", job.getId(), job.getClerkId());
+
+        // Don't wait for the next poll; the job is durable either way.
+        emailDeliveryWorker.wakeUp();
+
+        return new EmailJobStatus(job.getId(), job.getToEmail(), job.getStatus(), job.getAttempts(),
+                job.getLastError(), job.getCreatedAt(), job.getSentAt());
+    }
+
+    // One query for all invoice ids referenced by the campaign, instead of one per recipient.
+    private Set<String> findOwnedInvoiceIds(String clerkId, List<CampaignRecipient> recipients) {
+        Set<String> requested = recipients.stream()
+                .map(CampaignRecipient::getInvoiceId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requested.isEmpty()) {
+            return Set.of();
+        }
+        return invoiceRepository.findIdsByClerkIdAndIdIn(clerkId, requested).stream()
+                .map(Invoice::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static String validate(CampaignRecipient recipient, Map<String, MultipartFile> files, Set<String> ownedInvoiceIds) {
+        if (recipient.getEmail() == null || recipient.getEmail().isBlank()) {
+            return "Email cannot be empty.";
+        }
+        try {
+            new InternetAddress(recipient.getEmail(), true).validate();
+        } catch (AddressException e) {
+            return "Invalid email address.";
+        }
+        if (recipient.getInvoiceId() != null) {
+            return ownedInvoiceIds.contains(recipient.getInvoiceId())
+                    ? null
+                    : "Invoice Not Found: " + recipient.getInvoiceId();
+        }
+        MultipartFile file = recipient.getAttachment() != null ? files.get(recipient.getAttachment()) : null;
+        if (file == null || file.isEmpty()) {
+            return "Attachment '" + recipient.getAttachment() + "' is missing or empty.";
+        }
+        return null;
+    }
+}
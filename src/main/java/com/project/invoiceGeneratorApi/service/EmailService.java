@@ -4,13 +4,11 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
 
 @Service
 @RequiredArgsConstructor
@@ -21,7 +19,9 @@ public class EmailService {
     @Value("${spring.mail.properties.mail.smtp.from}")
     private String fromEmail;
 
-    public void sendInvoiceEmail(String toEmail, MultipartFile file) throws MessagingException, IOException {
+    // The attachment is read lazily, straight into the SMTP stream, when the message is sent.
+    public MimeMessage createInvoiceMessage(String toEmail, String attachmentName, InputStreamSource attachment,
+                                            String contentType) throws MessagingException {
         MimeMessage message = javaMailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
@@ -30,9 +30,19 @@ public class EmailService {
         helper.setSubject("Your Invoice");
         helper.setText("Dear Customer, \n\nPlease find attached your invoice.\n\n Thank You!");
 
-        helper.addAttachment(file.getOriginalFilename(), new ByteArrayResource(file.getBytes()));
+        if (contentType != null) {
+            helper.addAttachment(attachmentName, attachment, contentType);
+        } else {
+            helper.addAttachment(attachmentName, attachment);
+        }
+
+        return message;
+    }
 
-        javaMailSender.send(message);
+    // Sends all messages over a single SMTP connection. On partial failure the thrown
+    // MailSendException lists the failed messages; every other message was delivered.
+    public void sendAll(MimeMessage... messages) throws MailException {
+        javaMailSender.send(messages);
     }
 
 }
@@ -0,0 +1,167 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.dto.InvoiceAnalytics;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.entity.InvoiceRollup;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import com.project.invoiceGeneratorApi.repository.InvoiceRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// PURPOSE: Keeps the per-user invoice_rollups in step with invoice writes and serves the
+// analytics dashboard from them. Every save or delete turns into one bulk $inc on a few
+// rollup documents, so reading the dashboard never has to scan the user's invoices.
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceAnalyticsService {
+
+    public static final int MAX_MONTHS = 60;
+    public static final int MAX_TOP_CUSTOMERS = 50;
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceRollupRepository invoiceRollupRepository;
+
+    // Moves the invoice's contribution from its previous version ('before', null for a new
+    // invoice) to its new one ('after', null when deleted).
+    public void recordChange(String clerkId, Invoice before, Invoice after) {
+        Map<String, InvoiceRollup> deltas = new LinkedHashMap<>();
+        if (before != null) {
+            addContribution(deltas, before, -1);
+        }
+        if (after != null) {
+            addContribution(deltas, after, 1);
+        }
+        applyDeltas(clerkId, deltas);
+    }
+
+    // Same as recordChange for many invoices at once (batch create/delete): the deltas of all
+    // of them are merged first, so the whole batch costs one rollup write.
+    public void recordBulkChange(String clerkId, Collection<Invoice> removed, Collection<Invoice> added) {
+        Map<String, InvoiceRollup> deltas = new LinkedHashMap<>();
+        removed.forEach(invoice -> addContribution(deltas, invoice, -1));
+        added.forEach(invoice -> addContribution(deltas, invoice, 1));
+        applyDeltas(clerkId, deltas);
+    }
+
+    private void applyDeltas(String clerkId, Map<String, InvoiceRollup> deltas) {
+        // An edit that moved nothing (same month, customer and total) needs no write.
+        deltas.values().removeIf(delta -> delta.getInvoiceCount() == 0 && delta.getTotal() == 0 && delta.getLabel() == null);
+
+        try {
+            invoiceRollupRepository.applyDeltas(clerkId, deltas.values());
+        } catch (RuntimeException e) {
+            // The invoice itself is saved; stale rollups are corrected by the next rebuild.
+            log.warn("Could not update invoice rollups for clerkId {}: {}", clerkId, e.getMessage());
+            invoiceRollupRepository.findByClerkIdAndKindAndKey(clerkId, InvoiceRollup.Kind.ALL, InvoiceRollup.ALL_KEY)
+                    .ifPresent(all -> {
+                        all.setRebuiltAt(null);
+                        invoiceRollupRepository.save(all);
+                    });
+        }
+    }
+
+    public InvoiceAnalytics getAnalytics(String clerkId, int months, int topCustomers) {
+        InvoiceRollup all = invoiceRollupRepository
+                .findByClerkIdAndKindAndKey(clerkId, InvoiceRollup.Kind.ALL, InvoiceRollup.ALL_KEY)
+                .filter(rollup -> rollup.getRebuiltAt() != null)
+                .orElseGet(() -> rebuild(clerkId));
+
+        String fromMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(Math.max(1, Math.min(months, MAX_MONTHS)) - 1).toString();
+        List<InvoiceAnalytics.MonthlyRevenue> revenueByMonth = invoiceRollupRepository
+                .findByClerkIdAndKindAndKeyGreaterThanEqualOrderByKeyAsc(clerkId, InvoiceRollup.Kind.MONTH, fromMonth).stream()
+                .map(rollup -> new InvoiceAnalytics.MonthlyRevenue(rollup.getKey(), rollup.getInvoiceCount(), rollup.getTotal()))
+                .toList();
+
+        int top = Math.max(1, Math.min(topCustomers, MAX_TOP_CUSTOMERS));
+        List<InvoiceAnalytics.CustomerRevenue> customers = invoiceRollupRepository
+                .findByClerkIdAndKindOrderByTotalDesc(clerkId, InvoiceRollup.Kind.CUSTOMER, PageRequest.of(0, top)).stream()
+                .map(rollup -> new InvoiceAnalytics.CustomerRevenue(rollup.getLabel(), rollup.getInvoiceCount(), rollup.getTotal()))
+                .toList();
+
+        // Overdue depends on today's date, so it can't be maintained incrementally; it is an
+        // indexed aggregation over just the invoices that are past due.
+        Instant today = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+        InvoiceAnalytics.Overdue overdue = invoiceRepository.aggregateOverdue(clerkId, today);
+
+        return new InvoiceAnalytics(all.getInvoiceCount(), all.getTotal(), revenueByMonth, overdue, customers);
+    }
+
+    // Recomputes the user's rollups from their invoices. Needed the first time a user opens the
+    // dashboard (invoices may predate the rollups) and after an incremental update failed.
+    public InvoiceRollup rebuild(String clerkId) {
+        Map<String, InvoiceRollup> rollups = new LinkedHashMap<>();
+        for (InvoiceRollup aggregated : invoiceRepository.aggregateRollups(clerkId)) {
+            // The aggregation groups by billing name as written; merge the spellings we treat as one customer.
+            String key = aggregated.getKind() == InvoiceRollup.Kind.CUSTOMER ? customerKey(aggregated.getKey()) : aggregated.getKey();
+            InvoiceRollup rollup = rollups.computeIfAbsent(aggregated.getKind() + ":" + key, ignored -> InvoiceRollup.builder()
+                    .clerkId(clerkId)
+                    .kind(aggregated.getKind())
+                    .key(key)
+                    .label(aggregated.getLabel())
+                    .build());
+            rollup.setInvoiceCount(rollup.getInvoiceCount() + aggregated.getInvoiceCount());
+            rollup.setTotal(rollup.getTotal() + aggregated.getTotal());
+        }
+
+        InvoiceRollup all = rollups.computeIfAbsent(InvoiceRollup.Kind.ALL + ":" + InvoiceRollup.ALL_KEY, ignored -> InvoiceRollup.builder()
+                .clerkId(clerkId)
+                .kind(InvoiceRollup.Kind.ALL)
+                .key(InvoiceRollup.ALL_KEY)
+                .build());
+        all.setRebuiltAt(Instant.now());
+
+        invoiceRollupRepository.replaceAll(clerkId, List.copyOf(rollups.values()));
+        log.info("Rebuilt {} invoice rollups for clerkId: {}", rollups.size(), clerkId);
+        return all;
+    }
+
+    private static void addContribution(Map<String, InvoiceRollup> deltas, Invoice invoice, int sign) {
+        double total = invoice.resolvedTotal() * sign;
+        addDelta(deltas, InvoiceRollup.Kind.ALL, InvoiceRollup.ALL_KEY, null, sign, total);
+
+        // Same month rule as the rebuild aggregation: the issue date, else the creation time.
+        Instant issued = invoice.getIssuedOn() != null ? invoice.getIssuedOn() : invoice.getCreatedAt();
+        if (issued != null) {
+            addDelta(deltas, InvoiceRollup.Kind.MONTH, MONTH.format(issued), null, sign, total);
+        }
+
+        String name = invoice.getBilling() != null ? invoice.getBilling().getName() : null;
+        if (name != null && !name.isBlank()) {
+            // Only an added invoice refreshes the customer's display name.
+            addDelta(deltas, InvoiceRollup.Kind.CUSTOMER, customerKey(name), sign > 0 ? name.strip() : null, sign, total);
+        }
+    }
+
+    private static void addDelta(Map<String, InvoiceRollup> deltas, InvoiceRollup.Kind kind, String key,
+                                 String label, long count, double total) {
+        InvoiceRollup delta = deltas.computeIfAbsent(kind + ":" + key,
+                ignored -> InvoiceRollup.builder().kind(kind).key(key).build());
+        delta.setInvoiceCount(delta.getInvoiceCount() + count);
+        delta.setTotal(delta.getTotal() + total);
+        if (label != null) {
+            delta.setLabel(label);
+        }
+    }
+
+    // "ACME  Corp " and "acme corp" are the same customer.
+    private static String customerKey(String name) {
+        return name.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
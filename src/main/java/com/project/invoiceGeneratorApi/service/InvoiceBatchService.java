@@ -0,0 +1,281 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.invoiceGeneratorApi.asset.InvoiceAssets;
+import com.project.invoiceGeneratorApi.dto.InvoiceBatchResult;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// PURPOSE: Batch create, NDJSON import and batch delete of invoices. Invoices are validated
+// and prepared in parallel, then written 'chunk-size' at a time with one unordered bulk insert
+// per chunk, so importing 10k invoices takes ~10 round trips instead of 10k. Rollups and the
+// summary cache are updated once per chunk, not once per invoice. Preparation runs on a small
+// pool of its own: it writes assets, and blocking calls don't belong on the common ForkJoinPool.
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceBatchService {
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceAssets invoiceAssets;
+    private final InvoiceAnalyticsService invoiceAnalyticsService;
+    private final InvoiceSummaryCache invoiceSummaryCache;
+    private final InvoiceThumbnailWorker invoiceThumbnailWorker;
+    private final ContactService contactService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${invoice.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${invoice.batch.max-items:10000}")
+    private int maxItems;
+
+    @Value("${invoice.batch.prepare-threads:4}")
+    private int prepareThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService preparePool;
+
+    @PostConstruct
+    void start() {
+        // Fixed size in both modes: virtual threads make the waiting cheap, but the number of
+        // concurrent asset writes (and Mongo connections) stays bounded by prepare-threads.
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("invoice-batch-", 1).factory()
+                : Thread.ofPlatform().name("invoice-batch-", 1).daemon().factory();
+        preparePool = Executors.newFixedThreadPool(prepareThreads, threadFactory);
+    }
+
+    @PreDestroy
+    void stop() {
+        preparePool.shutdownNow();
+    }
+
+    public InvoiceBatchResult createAll(String clerkId, List<Invoice> invoices) {
+        if (invoices.size() > maxItems) {
+            throw new IllegalArgumentException("A batch can have at most " + maxItems + " invoices.");
+        }
+
+        List<InvoiceBatchResult.Item> results = new ArrayList<>(invoices.size());
+        for (int from = 0; from < invoices.size(); from += chunkSize) {
+            results.addAll(createChunk(clerkId, invoices.subList(from, Math.min(from + chunkSize, invoices.size())), from));
+        }
+        return finish(clerkId, results);
+    }
+
+    // Reads one invoice per line and writes each chunk as soon as it is full, so only one
+    // chunk of invoices is held in memory however large the upload is.
+    public InvoiceBatchResult importNdjson(String clerkId, InputStream body) throws IOException {
+        List<InvoiceBatchResult.Item> results = new ArrayList<>();
+        List<Invoice> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<Invoice> lines = objectMapper.readerFor(Invoice.class).readValues(body)) {
+            while (true) {
+                Invoice invoice;
+                try {
+                    if (!lines.hasNextValue()) {
+                        break;
+                    }
+                    if (index >= maxItems) {
+                        results.add(new InvoiceBatchResult.Item(index, null, InvoiceBatchResult.Status.REJECTED,
+                                "Import stopped: at most " + maxItems + " invoices per request."));
+                        break;
+                    }
+                    invoice = lines.nextValue();
+                } catch (JsonProcessingException e) {
+                    // The parser can't reliably find the next line after malformed JSON; keep
+                    // what was read so far and report where it stopped.
+                    results.add(new InvoiceBatchResult.Item(index, null, InvoiceBatchResult.Status.REJECTED,
+                            "Import stopped: line " + (index + 1) + " is not valid JSON."));
+                    break;
+                }
+                chunk.add(invoice);
+                index++;
+                if (chunk.size() == chunkSize) {
+                    results.addAll(createChunk(clerkId, chunk, index - chunk.size()));
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(createChunk(clerkId, chunk, index - chunk.size()));
+        }
+        results.sort(Comparator.comparingInt(InvoiceBatchResult.Item::index));
+        return finish(clerkId, results);
+    }
+
+    public InvoiceBatchResult deleteAll(String clerkId, List<String> ids) {
+        Set<String> unique = new LinkedHashSet<>(ids);
+        if (unique.size() > maxItems) {
+            throw new IllegalArgumentException("A batch can have at most " + maxItems + " invoices.");
+        }
+
+        List<String> all = List.copyOf(unique);
+        Set<String> deleted = new HashSet<>();
+        for (int from = 0; from < all.size(); from += chunkSize) {
+            List<String> chunk = all.subList(from, Math.min(from + chunkSize, all.size()));
+
+            // One findAndRemove per invoice: the rollups only lose what this request actually
+            // removed, as it was when removed, even if another delete or an edit races with it.
+            List<Invoice> removed = new ArrayList<>(chunk.size());
+            for (String id : chunk) {
+                Invoice invoice = invoiceRepository.removeReturningRollupFields(clerkId, id);
+                if (invoice != null) {
+                    removed.add(invoice);
+                    deleted.add(id);
+                }
+            }
+            if (!removed.isEmpty()) {
+                invoiceAnalyticsService.recordBulkChange(clerkId, removed, List.of());
+            }
+        }
+
+        List<InvoiceBatchResult.Item> results = new ArrayList<>(all.size());
+        for (int i = 0; i < all.size(); i++) {
+            String id = all.get(i);
+            results.add(deleted.contains(id)
+                    ? new InvoiceBatchResult.Item(i, id, InvoiceBatchResult.Status.DELETED, null)
+                    : new InvoiceBatchResult.Item(i, id, InvoiceBatchResult.Status.NOT_FOUND, "Invoice Not Found: " + id));
+        }
+        return finish(clerkId, results);
+    }
+
+    private List<InvoiceBatchResult.Item> createChunk(String clerkId, List<Invoice> chunk, int offset) {
+        Instant now = Instant.now();
+
+        // Validation and preparation are CPU work plus asset writes, independent per invoice.
+        InvoiceBatchResult.Item[] results = new InvoiceBatchResult.Item[chunk.size()];
+        CompletableFuture.allOf(IntStream.range(0, chunk.size())
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    Invoice invoice = chunk.get(i);
+                    String error = validate(invoice);
+                    if (error == null) {
+                        try {
+                            prepare(clerkId, invoice, now);
+                        } catch (IllegalArgumentException e) {
+                            error = "Invalid image data: " + e.getMessage();
+                        }
+                    }
+                    results[i] = error == null
+                            ? new InvoiceBatchResult.Item(offset + i, invoice.getId(), InvoiceBatchResult.Status.CREATED, null)
+                            : new InvoiceBatchResult.Item(offset + i, null, InvoiceBatchResult.Status.REJECTED, error);
+                }, preparePool))
+                .toArray(CompletableFuture[]::new)).join();
+
+        List<Invoice> prepared = new ArrayList<>(chunk.size());
+        List<Integer> preparedPositions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].status() == InvoiceBatchResult.Status.CREATED) {
+                prepared.add(chunk.get(i));
+                preparedPositions.add(i);
+            }
+        }
+
+        // Directory upserts and contactId lookups for the whole chunk at once.
+        List<String> contactErrors = contactService.attach(clerkId, prepared);
+        List<Invoice> valid = new ArrayList<>(prepared.size());
+        List<Integer> positions = new ArrayList<>(prepared.size());
+        for (int j = 0; j < prepared.size(); j++) {
+            int i = preparedPositions.get(j);
+            if (contactErrors.get(j) != null) {
+                results[i] = new InvoiceBatchResult.Item(offset + i, null, InvoiceBatchResult.Status.REJECTED, contactErrors.get(j));
+            } else {
+                valid.add(prepared.get(j));
+                positions.add(i);
+            }
+        }
+
+        Map<Integer, String> failures = invoiceRepository.insertUnordered(valid);
+        failures.forEach((validIndex, message) -> {
+            int i = positions.get(validIndex);
+            results[i] = new InvoiceBatchResult.Item(offset + i, null, InvoiceBatchResult.Status.FAILED, message);
+        });
+
+        if (failures.size() < valid.size()) {
+            Set<Integer> failed = failures.keySet();
+            List<Invoice> inserted = IntStream.range(0, valid.size())
+                    .filter(i -> !failed.contains(i))
+                    .mapToObj(valid::get)
+                    .collect(Collectors.toList());
+            invoiceAnalyticsService.recordBulkChange(clerkId, List.of(), inserted);
+            inserted.forEach(invoice -> invoiceThumbnailWorker.schedule(clerkId, invoice.getId()));
+        }
+        return List.of(results);
+    }
+
+    // Same derived state as InvoiceService.saveInvoice. Bulk inserts skip Spring Data's version
+    // and creation-date handling, so both are set here.
+    private void prepare(String clerkId, Invoice invoice, Instant now) {
+        invoiceAssets.extract(invoice);
+        invoice.setId(new ObjectId().toHexString());
+        invoice.setClerkId(clerkId);
+        invoice.setVersion(0L);
+        invoice.setCreatedAt(now);
+        invoice.setLastUpdatedAt(now);
+        invoice.assignItemIds();
+        invoice.computeDerivedFields();
+        invoice.setSchemaVersion(Invoice.SCHEMA_VERSION);
+    }
+
+    private static String validate(Invoice invoice) {
+        if (invoice == null) {
+            return "Invoice is empty.";
+        }
+        if (invoice.getId() != null) {
+            return "Batch create only adds new invoices; remove the id or update it with POST /api/invoices.";
+        }
+        if (!Double.isFinite(invoice.getTax()) || invoice.getTax() < 0) {
+            return "Tax must be a non-negative number.";
+        }
+        if (invoice.getItems() != null) {
+            for (Invoice.Item item : invoice.getItems()) {
+                if (item == null) {
+                    return "Items cannot be empty.";
+                }
+                if (item.getQty() < 0 || !Double.isFinite(item.getAmount())) {
+                    return "Item quantities must be non-negative and amounts must be numbers.";
+                }
+            }
+        }
+        return null;
+    }
+
+    private InvoiceBatchResult finish(String clerkId, List<InvoiceBatchResult.Item> results) {
+        InvoiceBatchResult result = InvoiceBatchResult.of(results);
+        if (result.succeeded() > 0) {
+            invoiceSummaryCache.invalidate(clerkId);
+        }
+        log.info("Batch for clerkId {}: {} succeeded, {} failed", clerkId, result.succeeded(), result.failed());
+        return result;
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.project.invoiceGeneratorApi.asset.InvoiceAssets;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// PURPOSE: Writes a user's whole invoice history to an output stream one document at a time.
+// Invoices are read from a Mongo cursor and written as soon as they arrive, so memory use
+// does not depend on how many invoices the user has. A slow client simply blocks the write,
+// which in turn stops us from pulling more batches from the cursor.
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceExportService {
+
+    // Flush roughly every this many invoices so the client sees steady progress.
+    private static final int FLUSH_EVERY = 100;
+
+    private static final String CSV_HEADER =
+            "id,title,number,date,dueDate,billingName,itemCount,tax,total,createdAt,lastUpdatedAt";
+
+    private final InvoiceRepository invoiceRepository;
+    private final ObjectMapper objectMapper;
+    private final InvoiceAssets invoiceAssets;
+
+    public void writeNdjson(String clerkId, OutputStream out) throws IOException {
+        // The response stream belongs to the container; don't let Jackson close it.
+        ObjectWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+
+        int count = 0;
+        try (Stream<Invoice> invoices = invoiceRepository.streamByClerkIdOrderByCreatedAtAsc(clerkId);
+             SequenceWriter sequence = writer.writeValues(out)) {
+
+            Iterator<Invoice> iterator = invoices.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(invoiceAssets.resolve(iterator.next()));
+                if (++count % FLUSH_EVERY == 0) {
+                    sequence.flush();
+                }
+            }
+        }
+        // SequenceWriter only writes separators between values; terminate the last line too.
+        if (count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        log.info("Exported {} invoices as NDJSON for clerkId: {}", count, clerkId);
+    }
+
+    public void writeCsv(String clerkId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+
+        int count = 0;
+        try (Stream<Invoice> invoices = invoiceRepository.streamByClerkIdOrderByCreatedAtAsc(clerkId)) {
+            Iterator<Invoice> iterator = invoices.iterator();
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, iterator.next());
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} invoices as CSV for clerkId: {}", count, clerkId);
+    }
+
+    private void writeCsvRow(Writer writer, Invoice invoice) throws IOException {
+        Invoice.InvoiceDetails details = invoice.getInvoice();
+        Invoice.Billing billing = invoice.getBilling();
+
+        String[] columns = {
+                invoice.getId(),
+                invoice.getTitle(),
+                details != null ? details.getNumber() : null,
+                details != null ? details.getDate() : null,
+                details != null ? details.getDueDate() : null,
+                billing != null ? billing.getName() : null,
+                String.valueOf(invoice.getItems() != null ? invoice.getItems().size() : 0),
+                String.valueOf(invoice.getTax()),
+                String.valueOf(invoice.resolvedTotal()),
+                invoice.getCreatedAt() != null ? invoice.getCreatedAt().toString() : null,
+                invoice.getLastUpdatedAt() != null ? invoice.getLastUpdatedAt().toString() : null
+        };
+
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(columns[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, and double any quotes.
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,248 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.invoiceGeneratorApi.asset.AssetStore;
+import com.project.invoiceGeneratorApi.asset.StoredAsset;
+import com.project.invoiceGeneratorApi.dto.RenderedInvoice;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.pdf.InvoiceTemplate;
+import com.project.invoiceGeneratorApi.pdf.InvoiceTemplateRegistry;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PURPOSE: Turns a stored Invoice into a PDF on the server.
+// Rendering runs on a bounded pool so a burst of downloads can't starve request threads.
+// Rendered PDFs are cached by (invoice id, version, template): any edit bumps the version,
+// so a cached entry can never be stale and no invalidation is needed. (Not lastUpdatedAt:
+// that also moves when a thumbnail is stored, which doesn't change the PDF.)
+// Concurrent requests for the same key share a single render.
+
+@Service
+@Slf4j
+public class InvoicePdfService {
+
+    // Logos are decoded once and downscaled to this box (2x the printed size, for sharpness).
+    private static final int LOGO_CACHE_MAX_WIDTH = 240;
+    private static final int LOGO_CACHE_MAX_HEIGHT = 120;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceTemplateRegistry templateRegistry;
+    private final AssetStore assetStore;
+    private final long renderTimeoutMs;
+
+    private final ThreadPoolExecutor renderPool;
+    private final AsyncCache<String, byte[]> renderedCache;
+    // logo content hash -> decoded logo; empty when the logo could not be decoded.
+    private final Cache<String, Optional<BufferedImage>> logoCache;
+
+    public InvoicePdfService(InvoiceRepository invoiceRepository,
+                             InvoiceTemplateRegistry templateRegistry,
+                             AssetStore assetStore,
+                             @Value("${invoice.pdf.render-threads:2}") int renderThreads,
+                             @Value("${invoice.pdf.queue-capacity:64}") int queueCapacity,
+                             @Value("${invoice.pdf.cache-max-bytes:67108864}") long cacheMaxBytes,
+                             @Value("${invoice.pdf.render-timeout-ms:30000}") long renderTimeoutMs) {
+        this.invoiceRepository = invoiceRepository;
+        this.templateRegistry = templateRegistry;
+        this.assetStore = assetStore;
+        this.renderTimeoutMs = renderTimeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.renderPool = new ThreadPoolExecutor(renderThreads, renderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.renderedCache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String key, byte[] pdf) -> pdf.length)
+                .expireAfterAccess(Duration.ofHours(6))
+                .buildAsync();
+
+        this.logoCache = Caffeine.newBuilder()
+                .maximumSize(512)
+                .expireAfterAccess(Duration.ofHours(6))
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    public Optional<RenderedInvoice> renderInvoice(String clerkId, String invoiceId) {
+        return invoiceRepository.findByClerkIdAndId(clerkId, invoiceId).map(this::render);
+    }
+
+    public RenderedInvoice render(Invoice invoice) {
+        InvoiceTemplate template = templateRegistry.resolve(invoice.getTemplate());
+
+        CompletableFuture<byte[]> pdf;
+        // Keyed by version: an unversioned (legacy) invoice would share "id:null" across edits.
+        if (invoice.getId() != null && invoice.getVersion() != null) {
+            String key = invoice.getId() + ":" + invoice.getVersion() + ":" + template.getId();
+            pdf = renderedCache.get(key, (ignored, executor) -> submit(template, invoice));
+        } else {
+            pdf = submit(template, invoice);
+        }
+
+        return new RenderedInvoice(fileName(invoice), await(pdf));
+    }
+
+    private CompletableFuture<byte[]> submit(InvoiceTemplate template, Invoice invoice) {
+        try {
+            return CompletableFuture.supplyAsync(() -> renderPdf(template, invoice), renderPool);
+        } catch (RejectedExecutionException e) {
+            throw new RenderUnavailableException("PDF rendering queue is full.", e);
+        }
+    }
+
+    private byte[] await(CompletableFuture<byte[]> pdf) {
+        try {
+            return pdf.get(renderTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RenderUnavailableException("PDF rendering timed out.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RenderUnavailableException("Interrupted while waiting for PDF rendering.", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        }
+    }
+
+    private byte[] renderPdf(InvoiceTemplate template, Invoice invoice) {
+        long start = System.nanoTime();
+        try (PDDocument document = new PDDocument()) {
+            template.render(document, invoice, logoFor(invoice));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+            document.save(out);
+            log.debug("Rendered invoice {} with {} in {} ms", invoice.getId(), template.getId(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render invoice " + invoice.getId(), e);
+        }
+    }
+
+    private BufferedImage logoFor(Invoice invoice) {
+        // Asset ids are already content hashes, so they key the cache directly.
+        if (invoice.getLogoAssetId() != null) {
+            return logoCache.get(invoice.getLogoAssetId(), this::decodeAssetLogo).orElse(null);
+        }
+
+        String logo = invoice.getLogo();
+        // Legacy inline data URLs; we never fetch remote images while rendering.
+        if (logo == null || !logo.startsWith("data:image/")) {
+            return null;
+        }
+        return logoCache.get(sha256(logo), ignored -> decodeDataUrlLogo(logo)).orElse(null);
+    }
+
+    private Optional<BufferedImage> decodeAssetLogo(String assetId) {
+        Optional<StoredAsset> asset = assetStore.get(assetId);
+        if (asset.isEmpty()) {
+            return Optional.empty();
+        }
+        try (InputStream in = asset.get().content().getInputStream()) {
+            return decodeLogo(in);
+        } catch (IOException e) {
+            log.warn("Could not read logo asset {}: {}", assetId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<BufferedImage> decodeDataUrlLogo(String dataUrl) {
+        try {
+            int comma = dataUrl.indexOf(',');
+            byte[] bytes = Base64.getMimeDecoder().decode(dataUrl.substring(comma + 1));
+            return decodeLogo(new ByteArrayInputStream(bytes));
+        } catch (IllegalArgumentException e) {
+            log.warn("Could not decode invoice logo: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<BufferedImage> decodeLogo(InputStream in) {
+        try {
+            BufferedImage image = ImageIO.read(in);
+            return Optional.ofNullable(image).map(InvoicePdfService::downscale);
+        } catch (IOException e) {
+            log.warn("Could not decode invoice logo: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static BufferedImage downscale(BufferedImage image) {
+        double scale = Math.min(1.0, Math.min((double) LOGO_CACHE_MAX_WIDTH / image.getWidth(),
+                (double) LOGO_CACHE_MAX_HEIGHT / image.getHeight()));
+        if (scale == 1.0) {
+            return image;
+        }
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static String fileName(Invoice invoice) {
+        String number = invoice.getInvoice() != null ? invoice.getInvoice().getNumber() : null;
+        String base = number != null && !number.isBlank() ? number : invoice.getId();
+        return "invoice-" + (base != null ? base.replaceAll("[^A-Za-z0-9._-]", "_") : "draft") + ".pdf";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Thrown when the render pool is saturated or a render takes too long; maps to 503.
+    public static class RenderUnavailableException extends RuntimeException {
+        public RenderUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.dto.InvoiceScheduleRequest;
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import com.project.invoiceGeneratorApi.repository.InvoiceScheduleRepository;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceScheduleService {
+
+    private final InvoiceScheduleRepository invoiceScheduleRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    @Value("${invoice.schedules.max-per-user:100}")
+    private int maxPerUser;
+
+    // Occurrences run somewhere in the first 'spread-minutes' of their day (UTC), at a fixed
+    // offset per schedule, so that everything due on the 1st doesn't fire at 00:00.
+    @Value("${invoice.schedules.spread-minutes:360}")
+    private int spreadMinutes;
+
+    public InvoiceSchedule create(String clerkId, InvoiceScheduleRequest request) {
+        if (request.invoiceId() == null || request.frequency() == null) {
+            throw new IllegalArgumentException("invoiceId and frequency are required.");
+        }
+        if (!invoiceRepository.existsByClerkIdAndId(clerkId, request.invoiceId())) {
+            throw new IllegalArgumentException("Invoice Not Found: " + request.invoiceId());
+        }
+        if (request.dueInDays() != null && request.dueInDays() < 0
+                || request.endAfter() != null && request.endAfter() < 1) {
+            throw new IllegalArgumentException("dueInDays must not be negative and endAfter must be at least 1.");
+        }
+        if (request.emailTo() != null) {
+            try {
+                new InternetAddress(request.emailTo(), true).validate();
+            } catch (AddressException e) {
+                throw new IllegalArgumentException("Invalid email address.");
+            }
+        }
+        if (invoiceScheduleRepository.countByClerkIdAndActiveTrue(clerkId) >= maxPerUser) {
+            throw new IllegalArgumentException("At most " + maxPerUser + " active schedules per user.");
+        }
+
+        InvoiceSchedule schedule = InvoiceSchedule.builder()
+                // The id decides the time of day the schedule runs, so it is needed up front.
+                .id(new ObjectId().toHexString())
+                .clerkId(clerkId)
+                .invoiceId(request.invoiceId())
+                .frequency(request.frequency())
+                .startOn(request.startOn() != null ? request.startOn() : LocalDate.now(ZoneOffset.UTC))
+                .dueInDays(request.dueInDays())
+                .emailTo(request.emailTo())
+                .endAfter(request.endAfter())
+                .active(true)
+                .build();
+        schedule.setNextRunAt(runAt(schedule, schedule.occurrenceDate(0)));
+
+        schedule = invoiceScheduleRepository.save(schedule);
+        log.info("Created {} schedule {} for invoice {} of clerkId: {}", schedule.getFrequency(), schedule.getId(),
+                schedule.getInvoiceId(), clerkId);
+        return schedule;
+    }
+
+    public List<InvoiceSchedule> findSchedules(String clerkId) {
+        return invoiceScheduleRepository.findByClerkIdOrderByCreatedAtDesc(clerkId);
+    }
+
+    // Already issued invoices stay; nothing new is issued.
+    public boolean remove(String clerkId, String scheduleId) {
+        return invoiceScheduleRepository.findByClerkIdAndId(clerkId, scheduleId)
+                .map(schedule -> {
+                    invoiceScheduleRepository.delete(schedule);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // When an occurrence dated 'date' should be issued.
+    public Instant runAt(InvoiceSchedule schedule, LocalDate date) {
+        long offsetMinutes = spreadMinutes > 0 ? Math.floorMod(schedule.getId().hashCode(), spreadMinutes) : 0;
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant().plus(Duration.ofMinutes(offsetMinutes));
+    }
+}
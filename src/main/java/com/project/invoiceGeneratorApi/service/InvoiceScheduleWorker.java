@@ -0,0 +1,223 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.entity.InvoiceSchedule;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import com.project.invoiceGeneratorApi.repository.InvoiceScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// PURPOSE: Issues the invoices of due recurring schedules. Schedules are claimed in batches
+// with a lease, so any number of pods can run this side by side: a schedule is only ever
+// worked on by one of them, and one whose pod died is picked up again after the lease.
+// Memory is bounded by the batch size however many schedules are due. Each copy goes through
+// InvoiceService like a user's save (rollups, caches, thumbnails, contacts). The unique
+// (scheduleId, occurrence) index makes a retried occurrence fail instead of issuing twice.
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceScheduleWorker {
+
+    // Long enough for a full batch of saves; if the pod dies the schedules become claimable again.
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private final InvoiceScheduleRepository invoiceScheduleRepository;
+    private final InvoiceScheduleService invoiceScheduleService;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final EmailQueueService emailQueueService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${invoice.schedules.batch-size:200}")
+    private int batchSize;
+
+    @Value("${invoice.schedules.poll-interval-ms:60000}")
+    private long pollIntervalMs;
+
+    @Value("${invoice.schedules.retry-delay-ms:3600000}")
+    private long retryDelayMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ScheduledExecutorService worker;
+
+    @PostConstruct
+    void start() {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("invoice-schedule-worker").factory()
+                : Thread.ofPlatform().name("invoice-schedule-worker").daemon().factory();
+        worker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        // Pods started together would otherwise poll in lockstep.
+        long initialDelay = pollIntervalMs + ThreadLocalRandom.current().nextLong(pollIntervalMs);
+        worker.scheduleWithFixedDelay(this::drain, initialDelay, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.shutdown();
+    }
+
+    private void drain() {
+        try {
+            List<InvoiceSchedule> batch;
+            do {
+                batch = invoiceScheduleRepository.claimBatch(Instant.now(), LEASE, batchSize);
+                if (!batch.isEmpty()) {
+                    run(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            // Claimed schedules are retried once their lease expires. Never let an exception
+            // cancel the scheduled task.
+            log.error("Invoice schedule worker failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run(List<InvoiceSchedule> batch) {
+        // The source invoices of the whole batch in one query.
+        Map<String, Invoice> sources = invoiceRepository.findAllById(
+                        batch.stream().map(InvoiceSchedule::getInvoiceId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+
+        int issued = 0;
+        for (InvoiceSchedule schedule : batch) {
+            Invoice source = sources.get(schedule.getInvoiceId());
+            if (source == null || !schedule.getClerkId().equals(source.getClerkId())) {
+                schedule.setActive(false);
+                schedule.setLastError("Invoice Not Found: " + schedule.getInvoiceId());
+                count("stopped");
+                continue;
+            }
+            if (issue(schedule, source)) {
+                issued++;
+            }
+        }
+
+        invoiceScheduleRepository.release(batch.get(0).getClaimToken(), batch);
+        log.info("Ran {} invoice schedules, {} invoices issued", batch.size(), issued);
+    }
+
+    // Issues the schedule's next occurrence and moves the schedule on. Returns whether a new invoice was saved.
+    private boolean issue(InvoiceSchedule schedule, Invoice source) {
+        int occurrence = schedule.getIssuedCount();
+        LocalDate date = schedule.occurrenceDate(occurrence);
+        boolean saved = false;
+        try {
+            Invoice invoice = invoiceService.saveInvoice(copyOf(source, schedule, occurrence, date));
+            schedule.setLastInvoiceId(invoice.getId());
+            saved = true;
+            count("issued");
+            if (schedule.getEmailTo() != null) {
+                enqueueEmail(schedule, invoice);
+            }
+        } catch (DuplicateKeyException e) {
+            // saveInvoice also writes contacts and rollups, so the duplicate may not be the invoice.
+            // Only an existing invoice for this occurrence means it's done.
+            if (!invoiceRepository.existsByScheduleIdAndOccurrence(schedule.getId(), occurrence)) {
+                return retryLater(schedule, occurrence, e);
+            }
+            // Issued by an earlier run that lost its lease before it could record it.
+            log.info("Occurrence {} of schedule {} was already issued", occurrence, schedule.getId());
+            count("duplicate");
+        } catch (RuntimeException e) {
+            return retryLater(schedule, occurrence, e);
+        }
+
+        schedule.setIssuedCount(occurrence + 1);
+        schedule.setLastIssuedAt(Instant.now());
+        schedule.setLastError(null);
+        if (schedule.getEndAfter() != null && schedule.getIssuedCount() >= schedule.getEndAfter()) {
+            schedule.setActive(false);
+        } else {
+            schedule.setNextRunAt(invoiceScheduleService.runAt(schedule, schedule.occurrenceDate(schedule.getIssuedCount())));
+        }
+        return saved;
+    }
+
+    // Retried later; the retry time is spread so failures don't come back all at once.
+    private boolean retryLater(InvoiceSchedule schedule, int occurrence, RuntimeException e) {
+        long delay = retryDelayMs + ThreadLocalRandom.current().nextLong(Math.max(1, retryDelayMs));
+        schedule.setNextRunAt(Instant.now().plusMillis(delay));
+        schedule.setLastError(e.getMessage());
+        log.warn("Could not issue occurrence {} of schedule {}: {}", occurrence, schedule.getId(), e.getMessage());
+        count("failed");
+        return false;
+    }
+
+    // The invoice is already saved; a failed enqueue must not make the schedule issue it again.
+    private void enqueueEmail(InvoiceSchedule schedule, Invoice invoice) {
+        try {
+            emailQueueService.enqueueStoredInvoiceEmail(schedule.getClerkId(), schedule.getEmailTo(), invoice.getId());
+        } catch (RuntimeException e) {
+            log.warn("Could not queue email of invoice {} from schedule {}: {}", invoice.getId(), schedule.getId(), e.getMessage());
+        }
+    }
+
+    // A new invoice with the source's content, dated for the occurrence. The JSON round trip
+    // leaves out everything server-managed (thumbnails, schema version).
+    private Invoice copyOf(Invoice source, InvoiceSchedule schedule, int occurrence, LocalDate date) {
+        Invoice invoice = objectMapper.convertValue(source, Invoice.class);
+        invoice.setId(null);
+        invoice.setVersion(null);
+        invoice.setCreatedAt(null);
+        invoice.setLastUpdatedAt(null);
+        invoice.setThumbnailUrl(null);
+        invoice.setThumbnailAssetId(null);
+        invoice.setClerkId(schedule.getClerkId());
+        invoice.setScheduleId(schedule.getId());
+        invoice.setOccurrence(occurrence);
+
+        Invoice.InvoiceDetails details = invoice.getInvoice() != null ? invoice.getInvoice() : new Invoice.InvoiceDetails();
+        Long dueInDays = schedule.getDueInDays() != null ? Long.valueOf(schedule.getDueInDays()) : daysUntilDue(details);
+        if (details.getNumber() != null && !details.getNumber().isBlank()) {
+            details.setNumber(details.getNumber() + "-" + (occurrence + 1));
+        }
+        details.setDate(date.toString());
+        details.setDueDate(dueInDays != null ? date.plusDays(dueInDays).toString() : null);
+        invoice.setInvoice(details);
+        return invoice;
+    }
+
+    // The source invoice's payment term, when both of its dates are readable.
+    private static Long daysUntilDue(Invoice.InvoiceDetails details) {
+        if (details.getDate() == null || details.getDueDate() == null
+                || details.getDate().length() < 10 || details.getDueDate().length() < 10) {
+            return null;
+        }
+        try {
+            return ChronoUnit.DAYS.between(LocalDate.parse(details.getDate().substring(0, 10)),
+                    LocalDate.parse(details.getDueDate().substring(0, 10)));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("invoice.schedules.runs", "result", result).increment();
+    }
+}
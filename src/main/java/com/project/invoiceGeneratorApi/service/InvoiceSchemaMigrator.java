@@ -0,0 +1,258 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.asset.InvoiceAssets;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.entity.SchemaMigration;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import com.project.invoiceGeneratorApi.repository.SchemaMigrationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// PURPOSE: Upgrades stored invoices to Invoice.SCHEMA_VERSION in the background, while the
+// app keeps serving. Documents are read in _id order in small batches with a pause in between,
+// so the migration never competes with user traffic for long. Progress is checkpointed after
+// every batch in schema_migrations, so a restart resumes where it stopped. Every update is
+// conditional on the version it read: if a user saves the invoice meanwhile, their save
+// already writes the new layout, and a patch is picked up by the next pass.
+//
+// Versions (each step brings a document from the previous version to its own):
+//   1  typed fields: stored totals, issuedOn/dueOn as real dates, item ids, a version
+//   2  inline base64 logos and thumbnails moved to the AssetStore
+//   3  '_class' type hint removed (see MongoConfig)
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceSchemaMigrator {
+
+    private static final String COLLECTION = "invoices";
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    // A pass only has to be repeated for invoices that were edited while it ran.
+    private static final int MAX_PASSES = 3;
+
+    private final InvoiceRepository invoiceRepository;
+    private final SchemaMigrationRepository schemaMigrationRepository;
+    private final InvoiceAssets invoiceAssets;
+    private final MeterRegistry meterRegistry;
+
+    // Identifies this instance's lease.
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${invoice.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invoice.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${invoice.migration.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${invoice.migration.check-interval-ms:600000}")
+    private long checkIntervalMs;
+
+    private ScheduledExecutorService worker;
+    private Counter migratedCounter;
+    private Counter skippedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        migratedCounter = documents("migrated");
+        skippedCounter = documents("skipped");
+        failedCounter = documents("failed");
+
+        worker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("invoice-schema-migrator").daemon().priority(Thread.MIN_PRIORITY).factory());
+        // Checked again periodically, in case the instance that held the lease died mid-way.
+        worker.scheduleWithFixedDelay(this::run, 30_000, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    private Counter documents(String result) {
+        return Counter.builder("invoice.migration.documents")
+                .description("Invoices processed by the schema migration")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void run() {
+        try {
+            SchemaMigration progress = schemaMigrationRepository.claim(COLLECTION, Invoice.SCHEMA_VERSION, owner,
+                    Instant.now(), LEASE);
+            if (progress == null) {
+                return;   // already complete, or another instance is on it
+            }
+            migrate(progress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // The checkpoint is kept; the next run (here or elsewhere) resumes from it.
+            log.error("Invoice schema migration failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void migrate(SchemaMigration progress) throws InterruptedException {
+        if (progress.getSizeBytesBefore() == null) {
+            Document stats = collectionStats();
+            progress.setSizeBytesBefore(longValue(stats, "size"));
+            progress.setStorageBytesBefore(longValue(stats, "storageSize"));
+            progress.setAverageDocumentBytesBefore(longValue(stats, "avgObjSize"));
+        }
+        log.info("Migrating invoices to schema version {} (resuming after {}, {} migrated so far)",
+                progress.getTargetVersion(), progress.getLastId(), progress.getMigrated());
+
+        for (int pass = 1; pass <= MAX_PASSES; pass++) {
+            long skippedBefore = progress.getSkipped();
+            List<Invoice> batch;
+            do {
+                batch = invoiceRepository.findBelowSchemaVersion(progress.getLastId(), progress.getTargetVersion(), batchSize);
+                for (Invoice invoice : batch) {
+                    migrate(invoice, progress);
+                }
+                if (!batch.isEmpty()) {
+                    progress.setLastId(batch.get(batch.size() - 1).getId());
+                }
+                if (!checkpoint(progress)) {
+                    log.warn("Lost the invoice migration lease; another instance continues");
+                    return;
+                }
+                Thread.sleep(pauseMs);
+            } while (batch.size() == batchSize);
+
+            log.info("Invoice migration pass {} done: {} migrated, {} skipped, {} failed",
+                    pass, progress.getMigrated(), progress.getSkipped(), progress.getFailed());
+            progress.setLastId(null);
+            if (progress.getSkipped() == skippedBefore) {
+                break;
+            }
+        }
+
+        Document stats = collectionStats();
+        progress.setSizeBytesAfter(longValue(stats, "size"));
+        progress.setStorageBytesAfter(longValue(stats, "storageSize"));
+        progress.setAverageDocumentBytesAfter(longValue(stats, "avgObjSize"));
+        progress.setCompletedAt(Instant.now());
+        checkpoint(progress);
+        log.info("Invoice migration to schema version {} complete: data {} -> {} bytes, storage {} -> {} bytes, "
+                        + "average document {} -> {} bytes",
+                progress.getTargetVersion(), progress.getSizeBytesBefore(), progress.getSizeBytesAfter(),
+                progress.getStorageBytesBefore(), progress.getStorageBytesAfter(),
+                progress.getAverageDocumentBytesBefore(), progress.getAverageDocumentBytesAfter());
+    }
+
+    private void migrate(Invoice invoice, SchemaMigration progress) {
+        int from = invoice.getSchemaVersion() != null ? invoice.getSchemaVersion() : 0;
+        Update update = new Update();
+        try {
+            if (from < 1) {
+                typedFields(invoice, update);
+            }
+            if (from < 2) {
+                externalImages(invoice, update);
+            }
+            if (from < 3) {
+                update.unset("_class");
+            }
+        } catch (RuntimeException e) {
+            // E.g. a logo that isn't valid base64. Leave the document as it is.
+            log.warn("Cannot migrate invoice {}: {}", invoice.getId(), e.getMessage());
+            progress.setFailed(progress.getFailed() + 1);
+            failedCounter.increment();
+            return;
+        }
+        update.set("schemaVersion", progress.getTargetVersion());
+
+        if (invoiceRepository.migrate(invoice.getId(), invoice.getVersion(), update)) {
+            progress.setMigrated(progress.getMigrated() + 1);
+            migratedCounter.increment();
+        } else {
+            progress.setSkipped(progress.getSkipped() + 1);
+            skippedCounter.increment();
+        }
+    }
+
+    // What saveInvoice derives on every write, for documents written before it did.
+    private static void typedFields(Invoice invoice, Update update) {
+        invoice.computeDerivedFields();
+        update.set("subtotal", invoice.getSubtotal())
+                .set("taxAmount", invoice.getTaxAmount())
+                .set("total", invoice.getTotal());
+        setOrUnset(update, "issuedOn", invoice.getIssuedOn());
+        setOrUnset(update, "dueOn", invoice.getDueOn());
+
+        if (invoice.getItems() != null && invoice.getItems().stream().anyMatch(item -> item.getItemId() == null)) {
+            invoice.assignItemIds();
+            update.set("items", invoice.getItems());
+        }
+        if (invoice.getVersion() == null) {
+            update.set("version", 0L);
+        }
+    }
+
+    private void externalImages(Invoice invoice, Update update) {
+        String logo = invoice.getLogo();
+        String thumbnailUrl = invoice.getThumbnailUrl();
+        invoiceAssets.extract(invoice);
+        if (!Objects.equals(logo, invoice.getLogo())) {
+            update.set("logoAssetId", invoice.getLogoAssetId()).unset("logo");
+        }
+        if (!Objects.equals(thumbnailUrl, invoice.getThumbnailUrl())) {
+            update.set("thumbnailAssetId", invoice.getThumbnailAssetId()).unset("thumbnailUrl");
+        }
+    }
+
+    private boolean checkpoint(SchemaMigration progress) {
+        Instant now = Instant.now();
+        progress.setUpdatedAt(now);
+        return schemaMigrationRepository.checkpoint(progress, now.plus(LEASE));
+    }
+
+    private static void setOrUnset(Update update, String key, Object value) {
+        if (value != null) {
+            update.set(key, value);
+        } else {
+            update.unset(key);
+        }
+    }
+
+    // Only for reporting; a user without the collStats privilege can still migrate.
+    private Document collectionStats() {
+        try {
+            return invoiceRepository.collectionStats();
+        } catch (RuntimeException e) {
+            log.debug("collStats unavailable: {}", e.getMessage());
+            return new Document();
+        }
+    }
+
+    private static Long longValue(Document stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
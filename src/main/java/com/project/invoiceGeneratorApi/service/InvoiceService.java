@@ -1,12 +1,28 @@
 package com.project.invoiceGeneratorApi.service;
 
+import com.project.invoiceGeneratorApi.asset.InvoiceAssets;
+import com.project.invoiceGeneratorApi.dto.InvoiceCursor;
+import com.project.invoiceGeneratorApi.dto.InvoicePatch;
+import com.project.invoiceGeneratorApi.dto.InvoiceSearch;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummary;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummaryPage;
 import com.project.invoiceGeneratorApi.entity.Invoice;
 import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 
 
 @Service
@@ -15,29 +31,275 @@ import java.util.List;
 public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceAssets invoiceAssets;
+    private final InvoiceAnalyticsService invoiceAnalyticsService;
+    private final InvoiceSummaryCache invoiceSummaryCache;
+    private final InvoiceThumbnailWorker invoiceThumbnailWorker;
+    private final ContactService contactService;
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_LENGTH = 200;
+
+    // Fields a PATCH may set, with the type their value must have. Everything derived from
+    // them (totals, parsed dates) is recomputed after the patch.
+    private static final Map<String, Class<?>> PATCHABLE_FIELDS = Map.ofEntries(
+            Map.entry("title", String.class),
+            Map.entry("notes", String.class),
+            Map.entry("template", String.class),
+            Map.entry("tax", Number.class),
+            Map.entry("company.name", String.class),
+            Map.entry("company.phone", String.class),
+            Map.entry("company.address", String.class),
+            Map.entry("billing.name", String.class),
+            Map.entry("billing.phone", String.class),
+            Map.entry("billing.address", String.class),
+            Map.entry("shipping.name", String.class),
+            Map.entry("shipping.phone", String.class),
+            Map.entry("shipping.address", String.class),
+            Map.entry("invoice.number", String.class),
+            Map.entry("invoice.date", String.class),
+            Map.entry("invoice.dueDate", String.class));
+
+    private static final List<String> PARTIES = List.of("company", "billing", "shipping");
+
+    // Patching any of these changes the stored totals or dates.
+    private static final Set<String> DERIVED_FROM = Set.of("tax", "invoice.date", "invoice.dueDate");
+
+    // Throws NoSuchElementException when the invoice has an id that isn't one of the user's
+    // invoices: updates only ever apply to the user's own documents, and new invoices get their
+    // id from the server. Checked first, so nothing (assets, contacts) is written for such a request.
     public Invoice saveInvoice(Invoice invoice) {
-        System.out.println("Saving invoice: " + invoice);
-        return invoiceRepository.save(invoice);
+        // An update has to take the previous version's figures out of the rollups.
+        Invoice previous = null;
+        if (invoice.getId() != null) {
+            previous = invoiceRepository.findRollupFieldsByClerkIdAndId(invoice.getClerkId(), invoice.getId())
+                    .orElseThrow(() -> new NoSuchElementException("Invoice Not Found: " + invoice.getId()));
+        }
+
+        // Store inline logo/thumbnail images once in the asset store and keep only references.
+        invoiceAssets.extract(invoice);
+        // File the parties in the directory, or fill in the ones sent as a bare contactId.
+        String contactError = contactService.attach(invoice.getClerkId(), List.of(invoice)).get(0);
+        if (contactError != null) {
+            throw new IllegalArgumentException(contactError);
+        }
+        invoice.assignItemIds();
+        invoice.computeDerivedFields();
+        invoice.setSchemaVersion(Invoice.SCHEMA_VERSION);
+
+        if (previous != null) {
+            if (previous.getVersion() == null) {
+                invoiceRepository.initializeVersion(previous.getId());
+                previous.setVersion(0L);
+            }
+            // Clients that don't send a version yet keep the old last-write-wins behaviour.
+            if (invoice.getVersion() == null) {
+                invoice.setVersion(previous.getVersion());
+            }
+            if (invoice.getCreatedAt() == null) {
+                invoice.setCreatedAt(previous.getCreatedAt());
+            }
+            // Thumbnails are server-managed; keep them so an unchanged invoice isn't re-rendered.
+            invoice.setThumbnails(previous.getThumbnails());
+            invoice.setThumbnailHash(previous.getThumbnailHash());
+            if (invoice.getThumbnailAssetId() == null) {
+                invoice.setThumbnailAssetId(previous.getThumbnailAssetId());
+            }
+            // So is the link to the schedule that issued the invoice.
+            invoice.setScheduleId(previous.getScheduleId());
+            invoice.setOccurrence(previous.getOccurrence());
+        }
+
+        // Throws OptimisticLockingFailureException when the invoice was changed since 'version'.
+        Invoice saved = invoiceRepository.save(invoice);
+        invoiceAnalyticsService.recordChange(saved.getClerkId(), previous, saved);
+        invoiceSummaryCache.invalidate(saved.getClerkId());
+        invoiceThumbnailWorker.schedule(saved.getClerkId(), saved.getId());
+        return invoiceAssets.resolve(saved);
     }
 
+    // A failed read is rethrown rather than answered with an empty list: the list is sent with an
+    // ETag, and an empty one would be revalidated as "not modified" until the user's data changes.
     public List<Invoice> fetchInvoices(String clerkId) {
         try {
             List<Invoice> invoices = invoiceRepository.findByClerkId(clerkId);
-            return invoices != null ? invoices : new ArrayList<>(); // Ensure you return an empty list, not null.
-        } catch (Exception e) {
+            if (invoices == null) {
+                return new ArrayList<>(); // Ensure you return an empty list, not null.
+            }
+            invoices.forEach(invoiceAssets::resolve);
+            return invoices;
+        } catch (RuntimeException e) {
             log.error("Error fetching invoices for clerkId {}: {}", clerkId, e.getMessage());
-            return new ArrayList<>(); // Return an empty list on error to prevent frontend issues.
+            throw e;
+        }
+    }
+
+    public Optional<Invoice> fetchInvoice(String clerkId, String invoiceId) {
+        return invoiceRepository.findByClerkIdAndId(clerkId, invoiceId).map(invoiceAssets::resolve);
+    }
+
+    // Weak ETag for the user's whole invoice list, built from two index-only queries instead of
+    // the documents. Every write bumps lastUpdatedAt (so the newest one moves) or changes the
+    // count (deletes), so the tag changes whenever the list does. Weak, because the same list
+    // may be sent gzipped or not.
+    public String invoicesETag(String clerkId) {
+        long count = invoiceRepository.countByClerkId(clerkId);
+        long latest = invoiceRepository.findFirstByClerkIdOrderByLastUpdatedAtDesc(clerkId)
+                .map(Invoice::getLastUpdatedAt)
+                .map(Instant::toEpochMilli)
+                .orElse(0L);
+        return "W/\"" + count + "-" + latest + "\"";
+    }
+
+    // Weak ETag for one invoice; empty when the user has no such invoice.
+    public Optional<String> invoiceETag(String clerkId, String invoiceId) {
+        return invoiceRepository.findVersionByClerkIdAndId(clerkId, invoiceId)
+                .map(invoice -> "W/\"" + invoice.getVersion() + "-"
+                        + (invoice.getLastUpdatedAt() != null ? invoice.getLastUpdatedAt().toEpochMilli() : 0) + "\"");
+    }
+
+    public InvoiceSummaryPage fetchInvoiceSummaries(String clerkId, String cursor, int pageSize, Sort.Direction direction) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        InvoiceCursor after = cursor != null && !cursor.isBlank() ? InvoiceCursor.decode(cursor) : null;
+
+        // Served from cache until one of the user's invoices is saved or removed.
+        return invoiceSummaryCache.get(clerkId, cursor, limit, direction,
+                () -> loadInvoiceSummaries(clerkId, after, limit, direction));
+    }
+
+    private InvoiceSummaryPage loadInvoiceSummaries(String clerkId, InvoiceCursor after, int limit, Sort.Direction direction) {
+        // Ask for one extra row so we know whether another page exists without a count query.
+        List<InvoiceSummary> summaries = invoiceRepository.findSummariesByClerkId(clerkId, after, direction, limit + 1);
+        return toPage(summaries, limit);
+    }
+
+    private InvoiceSummaryPage toPage(List<InvoiceSummary> summaries, int limit) {
+        boolean hasMore = summaries.size() > limit;
+        if (hasMore) {
+            summaries = summaries.subList(0, limit);
+        }
+        for (InvoiceSummary summary : summaries) {
+            if (summary.getThumbnailAssetId() != null) {
+                summary.setThumbnailUrl(invoiceAssets.urlFor(summary.getThumbnailAssetId()));
+            }
+        }
+
+        String nextCursor = hasMore ? InvoiceCursor.of(summaries.get(summaries.size() - 1)).encode() : null;
+        return new InvoiceSummaryPage(summaries, nextCursor, hasMore);
+    }
+
+    // Not cached: searches are too varied to get useful hit rates.
+    public InvoiceSummaryPage searchInvoices(String clerkId, InvoiceSearch search, String cursor, int pageSize) {
+        if (search.from() != null && search.to() != null && search.from().isAfter(search.to())
+                || search.dueFrom() != null && search.dueTo() != null && search.dueFrom().isAfter(search.dueTo())) {
+            throw new IllegalArgumentException("Date range starts after it ends.");
+        }
+        if (search.hasText() && search.q().length() > MAX_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Search text is too long.");
+        }
+
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        InvoiceCursor after = cursor != null && !cursor.isBlank() ? InvoiceCursor.decode(cursor) : null;
+
+        List<InvoiceSummary> summaries = invoiceRepository.searchSummaries(clerkId, search, after, limit + 1);
+        return toPage(summaries, limit);
+    }
+
+    // Applies a partial update as a single $set/$push/$pull on the stored document, so only the
+    // changed fields travel over the wire and into the oplog. Returns empty when the invoice
+    // doesn't exist; throws OptimisticLockingFailureException when it has a newer version.
+    public Optional<Invoice> patchInvoice(String clerkId, String invoiceId, InvoicePatch patch) {
+        Update update = toUpdate(patch);
+        boolean derivedFieldsChanged = patch.getAddItems() != null || patch.getUpdateItems() != null
+                || patch.getRemoveItemIds() != null
+                || (patch.getSet() != null && patch.getSet().keySet().stream().anyMatch(DERIVED_FROM::contains));
+
+        Optional<Invoice> previous = invoiceRepository.findRollupFieldsByClerkIdAndId(clerkId, invoiceId);
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Invoice patched = invoiceRepository.updateIfVersion(clerkId, invoiceId, patch.getVersion(), update);
+        if (patched == null) {
+            throw new OptimisticLockingFailureException("Invoice " + invoiceId + " was modified since version " + patch.getVersion() + ".");
+        }
+
+        if (derivedFieldsChanged) {
+            patched.computeDerivedFields();
+            invoiceRepository.updateDerivedFields(patched);
+        }
+        invoiceAnalyticsService.recordChange(clerkId, previous.get(), patched);
+        invoiceSummaryCache.invalidate(clerkId);
+        invoiceThumbnailWorker.schedule(clerkId, invoiceId);
+        return Optional.of(invoiceAssets.resolve(patched));
+    }
+
+    private static Update toUpdate(InvoicePatch patch) {
+        Update update = new Update();
+
+        if (patch.getSet() != null) {
+            for (Map.Entry<String, Object> field : patch.getSet().entrySet()) {
+                Class<?> type = PATCHABLE_FIELDS.get(field.getKey());
+                if (type == null) {
+                    throw new IllegalArgumentException("Field cannot be patched: " + field.getKey());
+                }
+                if (field.getValue() != null && !type.isInstance(field.getValue())) {
+                    throw new IllegalArgumentException("Invalid value for " + field.getKey() + ".");
+                }
+                if ("tax".equals(field.getKey()) && field.getValue() == null) {
+                    throw new IllegalArgumentException("Tax cannot be null.");
+                }
+                update.set(field.getKey(), field.getValue());
+            }
+            // A patched party no longer matches its directory entry.
+            for (String party : PARTIES) {
+                if (patch.getSet().keySet().stream().anyMatch(key -> key.startsWith(party + "."))) {
+                    update.unset(party + ".contactId");
+                }
+            }
+        }
+
+        int itemOperations = (patch.getAddItems() != null ? 1 : 0) + (patch.getUpdateItems() != null ? 1 : 0)
+                + (patch.getRemoveItemIds() != null ? 1 : 0);
+        if (itemOperations > 1) {
+            throw new IllegalArgumentException("Use only one of addItems, updateItems and removeItemIds per patch.");
+        }
+
+        if (patch.getAddItems() != null) {
+            Invoice.assignItemIds(patch.getAddItems());
+            update.push("items").each(patch.getAddItems().toArray());
+        }
+        if (patch.getUpdateItems() != null) {
+            // One array filter per item: items.$[i0] is the element whose itemId matches the first item, etc.
+            for (int i = 0; i < patch.getUpdateItems().size(); i++) {
+                Invoice.Item item = patch.getUpdateItems().get(i);
+                if (item.getItemId() == null) {
+                    throw new IllegalArgumentException("Items to update need an itemId.");
+                }
+                update.set("items.$[i" + i + "]", item);
+                update.filterArray(Criteria.where("i" + i + ".itemId").is(item.getItemId()));
+            }
+        }
+        if (patch.getRemoveItemIds() != null) {
+            update.pull("items", Query.query(Criteria.where("itemId").in(patch.getRemoveItemIds())));
+        }
+
+        if (update.getUpdateObject().isEmpty()) {
+            throw new IllegalArgumentException("Patch contains no changes.");
         }
+        return update;
     }
 
     public void removeInvoice(String invoiceId, String clerkId) {
         // 1. Attempt to find the invoice by its ID.
-        Invoice existingInvoice = invoiceRepository.findByClerkIdAndId(invoiceId, clerkId)
+        Invoice existingInvoice = invoiceRepository.findByClerkIdAndId(clerkId, invoiceId)
                                         .orElseThrow(() -> new RuntimeException("Invoice Not Found: " + invoiceId));
 
         // 2. If the invoice was found, delete it using the repository.
         invoiceRepository.delete(existingInvoice);
+        invoiceAnalyticsService.recordChange(clerkId, existingInvoice, null);
+        invoiceSummaryCache.invalidate(clerkId);
     }
 
 }
@@ -0,0 +1,50 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.config.CacheConfig;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummaryPage;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// PURPOSE: Caches invoice summary pages per user and drops all of a user's pages at once when
+// one of their invoices changes. Pages are keyed by a per-user generation token; invalidating
+// just forgets the token, so the old pages become unreachable and age out. That works the
+// same for an in-process or a shared cache, with no need to enumerate keys.
+
+@Component
+public class InvoiceSummaryCache {
+
+    private final Cache generations;
+    private final Cache pages;
+
+    public InvoiceSummaryCache(CacheManager cacheManager) {
+        this.generations = Objects.requireNonNull(cacheManager.getCache(CacheConfig.INVOICE_SUMMARY_GENERATIONS));
+        this.pages = Objects.requireNonNull(cacheManager.getCache(CacheConfig.INVOICE_SUMMARIES));
+    }
+
+    public InvoiceSummaryPage get(String clerkId, String cursor, int limit, Sort.Direction direction,
+                                  Supplier<InvoiceSummaryPage> loader) {
+        String generation = generations.get(clerkId, () -> UUID.randomUUID().toString());
+        String key = clerkId + ':' + generation + ':' + direction + ':' + limit + ':' + (cursor != null ? cursor : "");
+
+        // Plain get/put rather than Cache.get(key, loader): Caffeine runs a loader inside
+        // ConcurrentHashMap.compute, i.e. under a monitor, which would pin a virtual thread to
+        // its carrier for the whole Mongo query. Two concurrent misses may both load; that's fine.
+        InvoiceSummaryPage page = pages.get(key, InvoiceSummaryPage.class);
+        if (page == null) {
+            page = loader.get();
+            pages.put(key, page);
+        }
+        return page;
+    }
+
+    // Call after the write, so a read racing with it can't cache the old data under the new generation.
+    public void invalidate(String clerkId) {
+        generations.evict(clerkId);
+    }
+}
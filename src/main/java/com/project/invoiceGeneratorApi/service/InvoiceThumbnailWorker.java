@@ -0,0 +1,198 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.invoiceGeneratorApi.asset.AssetStore;
+import com.project.invoiceGeneratorApi.entity.Invoice;
+import com.project.invoiceGeneratorApi.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PURPOSE: Renders invoice previews on the server after a save. The first page of the invoice
+// PDF is rasterised once and scaled to each configured width; the JPEGs go into the
+// content-addressed AssetStore, so listings can serve small, forever-cacheable images.
+// Work runs on a small bounded pool, off the request path. An invoice is only re-rendered
+// when the hash of its rendered content changes, so saving without visible changes is free.
+// When the queue is full the preview is skipped; the invoice's next save schedules it again.
+
+@Component
+@Slf4j
+public class InvoiceThumbnailWorker {
+
+    // Part of the content hash: bump it when the rendering itself changes, to regenerate all previews.
+    private static final String PREVIEW_FORMAT = "jpeg-v1";
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfService invoicePdfService;
+    private final AssetStore assetStore;
+    private final InvoiceSummaryCache invoiceSummaryCache;
+    private final ObjectMapper objectMapper;
+    private final int[] widths;
+    private final int listingWidth;
+
+    private final ThreadPoolExecutor pool;
+    // Invoices queued but not yet started; repeated saves in the meantime don't queue again.
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public InvoiceThumbnailWorker(InvoiceRepository invoiceRepository,
+                                  InvoicePdfService invoicePdfService,
+                                  AssetStore assetStore,
+                                  InvoiceSummaryCache invoiceSummaryCache,
+                                  ObjectMapper objectMapper,
+                                  @Value("${invoice.thumbnail.widths:160,320,640}") int[] widths,
+                                  @Value("${invoice.thumbnail.listing-width:320}") int listingWidth,
+                                  @Value("${invoice.thumbnail.threads:1}") int threads,
+                                  @Value("${invoice.thumbnail.queue-capacity:1000}") int queueCapacity) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoicePdfService = invoicePdfService;
+        this.assetStore = assetStore;
+        this.invoiceSummaryCache = invoiceSummaryCache;
+        this.objectMapper = objectMapper;
+        this.widths = Arrays.stream(widths).distinct().sorted().toArray();
+        this.listingWidth = listingWidth;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Previews must never slow down request handling or PDF downloads.
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public void schedule(String clerkId, String invoiceId) {
+        if (invoiceId == null || !pending.add(invoiceId)) {
+            return;
+        }
+        try {
+            pool.execute(() -> {
+                pending.remove(invoiceId);
+                generate(clerkId, invoiceId);
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(invoiceId);
+            log.debug("Thumbnail queue full, skipping preview of invoice {}", invoiceId);
+        }
+    }
+
+    private void generate(String clerkId, String invoiceId) {
+        try {
+            // Load the latest version: the invoice may have changed since it was queued.
+            Invoice invoice = invoiceRepository.findByClerkIdAndId(clerkId, invoiceId).orElse(null);
+            if (invoice == null) {
+                return;
+            }
+            String hash = contentHash(invoice);
+            if (hash.equals(invoice.getThumbnailHash())) {
+                return;
+            }
+
+            Map<String, String> thumbnails = render(invoicePdfService.render(invoice).content());
+            String listingAssetId = thumbnails.getOrDefault(String.valueOf(listingWidth), thumbnails.get(String.valueOf(widths[0])));
+            if (invoiceRepository.updateThumbnails(invoice.getId(), invoice.getVersion(), hash, thumbnails, listingAssetId)) {
+                invoiceSummaryCache.invalidate(clerkId);
+            }
+        } catch (InvoicePdfService.RenderUnavailableException e) {
+            log.debug("Skipping preview of invoice {}: {}", invoiceId, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Could not render preview of invoice {}: {}", invoiceId, e.getMessage());
+        }
+    }
+
+    // Rasterises the first page at the largest width, then scales down for the others.
+    private Map<String, String> render(byte[] pdf) throws IOException {
+        BufferedImage page;
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PDRectangle box = document.getPage(0).getMediaBox();
+            float scale = widths[widths.length - 1] / box.getWidth();
+            page = new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+
+        Map<String, String> thumbnails = new LinkedHashMap<>();
+        for (int width : widths) {
+            BufferedImage image = width == page.getWidth() ? page : scaleToWidth(page, width);
+            thumbnails.put(String.valueOf(width), assetStore.put(toJpeg(image), "image/jpeg"));
+        }
+        return thumbnails;
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round(image.getHeight() * (float) width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        if (!ImageIO.write(image, "jpg", out)) {
+            throw new IOException("No JPEG writer available");
+        }
+        return out.toByteArray();
+    }
+
+    // Everything that shows up on the rendered page, and nothing that changes on every save
+    // (version, timestamps) or that the preview itself produces.
+    private String contentHash(Invoice invoice) {
+        RenderedContent content = new RenderedContent(PREVIEW_FORMAT, Arrays.toString(widths), invoice.getTemplate(),
+                invoice.getTitle(), invoice.getCompany(), invoice.getBilling(), invoice.getShipping(), invoice.getInvoice(),
+                invoice.getItems(), invoice.getNotes(), invoice.getTax(), invoice.getLogoAssetId(),
+                invoice.getLogoAssetId() == null ? invoice.getLogo() : null);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(content));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record RenderedContent(String format, String widths, String template, String title,
+                                   Invoice.Company company, Invoice.Billing billing, Invoice.Shipping shipping,
+                                   Invoice.InvoiceDetails details, List<Invoice.Item> items, String notes,
+                                   double tax, String logoAssetId, String logo) {
+    }
+}
@@ -1,10 +1,17 @@
 package com.project.invoiceGeneratorApi.service;
 
+import com.project.invoiceGeneratorApi.config.CacheConfig;
+import com.project.invoiceGeneratorApi.entity.WebhookEvent;
 import com.project.invoiceGeneratorApi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import com.project.invoiceGeneratorApi.entity.User;
+import java.util.Collection;
 import java.util.Optional;
 
 @Service
@@ -13,14 +20,20 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
 
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#user.clerkId")
     public User saveOrUpdateuser(User user) {
 
-        log.info("Attempting to save or update user: {}", user); // Log incoming user
+        log.info("Attempting to save or update user with clerkId {}", user.getClerkId());
 
         Optional<User> optionalUser = userRepository.findByClerkId(user.getClerkId());
 
 
+        if (optionalUser.isPresent() && optionalUser.get().isDeleted()) {
+            throw new IllegalStateException("User " + user.getClerkId() + " has been deleted.");
+        }
+
         if(optionalUser.isPresent()) {
 
             User existingUser = optionalUser.get();
@@ -32,22 +45,37 @@ public class UserService {
             existingUser.setPhotoUrl(user.getPhotoUrl());
 
             existingUser = userRepository.save(existingUser);
-            log.info("Existing user updated: {}", existingUser); // Log updated user
+            log.info("Existing user {} updated.", existingUser.getClerkId());
             return existingUser;
         }
 
         return userRepository.save(user);
     }
 
+    // Applies a batch of Clerk webhook events (at most one per user) and drops the cached profiles.
+    public void applyWebhookEvents(Collection<WebhookEvent> events) {
+        userRepository.applyWebhookEvents(events);
+
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        if (users != null) {
+            events.forEach(event -> users.evict(event.getClerkId()));
+        }
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#clerkId")
     public void deleteAccount(String clerkId) {
         User existingUser = userRepository.findByClerkId(clerkId)
+                .filter(user -> !user.isDeleted())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         userRepository.delete(existingUser);
     }
 
+    // Profiles only change through this service, so they are served from cache.
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#clerkId")
     public User getAccountByClerkId(String clerkId) {
         return userRepository.findByClerkId(clerkId)
+                .filter(user -> !user.isDeleted())
                 .orElseThrow(() -> new RuntimeException("User Not Found."));
     }
 
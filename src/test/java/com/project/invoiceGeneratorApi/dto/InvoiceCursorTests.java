@@ -0,0 +1,50 @@
+package com.project.invoiceGeneratorApi.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class InvoiceCursorTests {
+
+	@Test
+	void roundTripsCreatedAtAndId() {
+		InvoiceCursor cursor = new InvoiceCursor(Instant.ofEpochMilli(1_700_000_000_123L), "65a1f0c2e4b0a1b2c3d4e5f6");
+
+		InvoiceCursor decoded = InvoiceCursor.decode(cursor.encode());
+
+		assertThat(decoded).isEqualTo(cursor);
+	}
+
+	@Test
+	void encodesAsUrlSafeBase64WithoutPadding() {
+		String encoded = new InvoiceCursor(Instant.ofEpochMilli(1), "a?b/c>d").encode();
+
+		assertThat(encoded).doesNotContain("+", "/", "=");
+	}
+
+	@Test
+	void keepsSeparatorsInsideTheId() {
+		InvoiceCursor cursor = new InvoiceCursor(Instant.ofEpochMilli(42), "legacy:id");
+
+		assertThat(InvoiceCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void rejectsCursorsNotProducedByEncode() {
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceCursor.decode("not base64!"));
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceCursor.decode(encode("no-separator")));
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceCursor.decode(encode(":id")));
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceCursor.decode(encode("123:")));
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceCursor.decode(encode("yesterday:id")));
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
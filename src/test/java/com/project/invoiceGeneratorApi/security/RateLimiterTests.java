@@ -0,0 +1,108 @@
+package com.project.invoiceGeneratorApi.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTests {
+
+	private static final int STRIPES = 8;
+
+	private final RateLimiter rateLimiter = new RateLimiter(3, 30_000);
+
+	@Test
+	void keyedLimitGivesEverySubjectItsOwnBucket() {
+		RateLimiter.KeyedLimit limit = rateLimiter.keyed("test", 60, 2);
+		long now = System.nanoTime();
+
+		assertThat(limit.tryAcquire("user_1", now)).isZero();
+		assertThat(limit.tryAcquire("user_1", now)).isZero();
+		assertThat(limit.tryAcquire("user_1", now)).isPositive();
+		assertThat(limit.tryAcquire("user_2", now)).isZero();
+		assertThat(limit.size()).isEqualTo(2);
+	}
+
+	@Test
+	void subjectsBeyondMaxKeysShareTheOverflowBucket() {
+		RateLimiter.KeyedLimit limit = rateLimiter.keyed("test", 60, 1);
+		long now = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			assertThat(limit.tryAcquire("user_" + i, now)).isZero();
+		}
+
+		assertThat(limit.tryAcquire("user_3", now)).isZero();
+		assertThat(limit.tryAcquire("user_4", now)).isPositive();
+		assertThat(limit.size()).isEqualTo(3);
+	}
+
+	@Test
+	void sweepDropsOnlyFullyRefilledBuckets() {
+		RateLimiter.KeyedLimit limit = rateLimiter.keyed("test", 60, 1);
+		long now = System.nanoTime();
+		limit.tryAcquire("idle", now - TimeUnit.HOURS.toNanos(1));
+		limit.tryAcquire("active", now);
+
+		rateLimiter.sweep();
+
+		assertThat(limit.size()).isEqualTo(1);
+		assertThat(limit.tryAcquire("active", now)).isPositive();
+	}
+
+	@Test
+	void globalLimitAllowsTheWholeBurstAcrossStripes() {
+		RateLimiter.GlobalLimit limit = rateLimiter.global("global", 60, 64, STRIPES);
+		long now = System.nanoTime();
+
+		for (int i = 0; i < 64; i++) {
+			assertThat(limit.tryAcquire(now)).isZero();
+		}
+		assertThat(limit.tryAcquire(now)).isPositive();
+	}
+
+	@Test
+	void globalLimitKeepsTheRemainderOfABurstThatDoesNotDivideAcrossStripes() {
+		RateLimiter.GlobalLimit limit = rateLimiter.global("global", 60, 100, STRIPES);
+		long now = System.nanoTime();
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(limit.tryAcquire(now)).isZero();
+		}
+		assertThat(limit.tryAcquire(now)).isPositive();
+	}
+
+	@Test
+	void globalLimitRefillsTheBurstAfterOneRefillPeriod() {
+		RateLimiter.GlobalLimit limit = rateLimiter.global("global", 60, 64, STRIPES);
+		long now = System.nanoTime();
+		for (int i = 0; i < 64; i++) {
+			limit.tryAcquire(now);
+		}
+
+		// 64 permits at 60 per minute take 64 seconds to come back.
+		long refilled = now + TimeUnit.SECONDS.toNanos(64);
+		for (int i = 0; i < 64; i++) {
+			assertThat(limit.tryAcquire(refilled)).isZero();
+		}
+		assertThat(limit.tryAcquire(refilled)).isPositive();
+	}
+
+	@Test
+	void globalLimitUsesASingleBucketWhenBurstIsSmallerThanStripes() {
+		RateLimiter.GlobalLimit limit = rateLimiter.global("global", 60, 1, STRIPES);
+		long now = System.nanoTime();
+
+		assertThat(limit.tryAcquire(now)).isZero();
+		assertThat(limit.tryAcquire(now)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	void concurrentCallersNeverExceedTheGlobalBurst() throws Exception {
+		RateLimiter.GlobalLimit limit = rateLimiter.global("global", 60, 128, STRIPES);
+		long now = System.nanoTime();
+
+		assertThat(TokenBucketTests.acquireConcurrently(8, 2000, () -> limit.tryAcquire(now))).isEqualTo(128);
+	}
+
+}
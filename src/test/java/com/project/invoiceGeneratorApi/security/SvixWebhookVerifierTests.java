@@ -0,0 +1,71 @@
+package com.project.invoiceGeneratorApi.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SvixWebhookVerifierTests {
+
+	private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+	private static final String SECRET = "whsec_" + Base64.getEncoder().encodeToString(KEY);
+	private static final long NOW = 1_700_000_000L;
+	private static final String ID = "msg_2bVq1nW0";
+	private static final String PAYLOAD = "{\"type\":\"user.created\",\"data\":{\"id\":\"user_1\"}}";
+
+	private final SvixWebhookVerifier verifier = new SvixWebhookVerifier(SECRET);
+
+	@Test
+	void acceptsSignatureOverIdTimestampAndBody() throws Exception {
+		String timestamp = String.valueOf(NOW);
+
+		assertThat(verifier.verify(ID, timestamp, "v1," + sign(ID, timestamp, PAYLOAD), PAYLOAD, NOW)).isTrue();
+	}
+
+	@Test
+	void acceptsAnyMatchingEntryWhileSecretsRotate() throws Exception {
+		String timestamp = String.valueOf(NOW);
+		String header = "v1,bm90LXRoZS1zaWduYXR1cmU= v1," + sign(ID, timestamp, PAYLOAD);
+
+		assertThat(verifier.verify(ID, timestamp, header, PAYLOAD, NOW)).isTrue();
+	}
+
+	@Test
+	void rejectsTamperedBodyOrId() throws Exception {
+		String timestamp = String.valueOf(NOW);
+		String header = "v1," + sign(ID, timestamp, PAYLOAD);
+
+		assertThat(verifier.verify(ID, timestamp, header, PAYLOAD.replace("user_1", "user_2"), NOW)).isFalse();
+		assertThat(verifier.verify("msg_other", timestamp, header, PAYLOAD, NOW)).isFalse();
+	}
+
+	@Test
+	void rejectsTimestampsOutsideTheTolerance() throws Exception {
+		String old = String.valueOf(NOW - 301);
+
+		assertThat(verifier.verify(ID, old, "v1," + sign(ID, old, PAYLOAD), PAYLOAD, NOW)).isFalse();
+		assertThat(verifier.verify(ID, "yesterday", "v1,AAAA", PAYLOAD, NOW)).isFalse();
+	}
+
+	@Test
+	void rejectsMalformedSignatureHeaders() {
+		String timestamp = String.valueOf(NOW);
+
+		assertThat(verifier.verify(ID, timestamp, "", PAYLOAD, NOW)).isFalse();
+		assertThat(verifier.verify(ID, timestamp, "v1,not base64!", PAYLOAD, NOW)).isFalse();
+		assertThat(verifier.verify(ID, timestamp, "v2,AAAA", PAYLOAD, NOW)).isFalse();
+		assertThat(verifier.verify(ID, timestamp, null, PAYLOAD, NOW)).isFalse();
+	}
+
+	private static String sign(String id, String timestamp, String payload) throws Exception {
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+		byte[] signature = mac.doFinal((id + "." + timestamp + "." + payload).getBytes(StandardCharsets.UTF_8));
+		return Base64.getEncoder().encodeToString(signature);
+	}
+
+}
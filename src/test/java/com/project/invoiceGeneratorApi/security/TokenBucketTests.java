@@ -0,0 +1,119 @@
+package com.project.invoiceGeneratorApi.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+	private static final long START = TimeUnit.HOURS.toNanos(1);
+
+	@Test
+	void allowsBurstFromFullBucketThenRefuses() {
+		TokenBucket bucket = new TokenBucket(INTERVAL, 3, START);
+
+		assertThat(bucket.tryAcquire(START)).isZero();
+		assertThat(bucket.tryAcquire(START)).isZero();
+		assertThat(bucket.tryAcquire(START)).isZero();
+		assertThat(bucket.tryAcquire(START)).isEqualTo(INTERVAL);
+	}
+
+	@Test
+	void refillsOnePermitPerInterval() {
+		TokenBucket bucket = drained(3);
+
+		assertThat(bucket.tryAcquire(START + INTERVAL / 2)).isEqualTo(INTERVAL / 2);
+		assertThat(bucket.tryAcquire(START + INTERVAL)).isZero();
+		assertThat(bucket.tryAcquire(START + INTERVAL)).isEqualTo(INTERVAL);
+	}
+
+	@Test
+	void refusedRequestsDoNotConsumePermits() {
+		TokenBucket bucket = drained(1);
+		for (int i = 0; i < 10; i++) {
+			assertThat(bucket.tryAcquire(START)).isPositive();
+		}
+
+		assertThat(bucket.tryAcquire(START + INTERVAL)).isZero();
+	}
+
+	@Test
+	void idleTimeDoesNotAccumulateBeyondBurst() {
+		TokenBucket bucket = drained(3);
+		long later = START + TimeUnit.HOURS.toNanos(1);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(bucket.tryAcquire(later)).isZero();
+		}
+		assertThat(bucket.tryAcquire(later)).isPositive();
+	}
+
+	@Test
+	void isIdleOnceFullyRefilled() {
+		TokenBucket bucket = drained(3);
+
+		assertThat(bucket.isIdle(START)).isFalse();
+		assertThat(bucket.isIdle(START + 3 * INTERVAL - 1)).isFalse();
+		assertThat(bucket.isIdle(START + 3 * INTERVAL)).isTrue();
+		assertThat(new TokenBucket(INTERVAL, 3, START).isIdle(START)).isTrue();
+	}
+
+	@Test
+	void concurrentCallersNeverTakeMoreThanBurst() throws Exception {
+		int burst = 100;
+		TokenBucket bucket = new TokenBucket(INTERVAL, burst, START);
+
+		assertThat(acquireConcurrently(8, 1000, () -> bucket.tryAcquire(START))).isEqualTo(burst);
+	}
+
+	private static TokenBucket drained(int burst) {
+		TokenBucket bucket = new TokenBucket(INTERVAL, burst, START);
+		for (int i = 0; i < burst; i++) {
+			assertThat(bucket.tryAcquire(START)).isZero();
+		}
+		return bucket;
+	}
+
+	// Runs 'attempts' acquisitions on 'threads' threads released at once; returns how many succeeded.
+	static int acquireConcurrently(int threads, int attempts, Acquire acquire) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					int granted = 0;
+					for (int i = 0; i < attempts / threads; i++) {
+						if (acquire.tryAcquire() == 0) {
+							granted++;
+						}
+					}
+					return granted;
+				}));
+			}
+			start.countDown();
+			int granted = 0;
+			for (Future<Integer> result : results) {
+				granted += result.get(10, TimeUnit.SECONDS);
+			}
+			return granted;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	interface Acquire {
+		long tryAcquire();
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.project.invoiceGeneratorApi.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTests {
+
+	@Test
+	void returnsTokenUntilItExpires() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		VerifiedToken token = token("user_1", Instant.now().plusSeconds(60));
+
+		cache.put("hash", token);
+
+		assertThat(cache.get("hash")).isSameAs(token);
+	}
+
+	@Test
+	void dropsExpiredTokenOnRead() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		cache.put("hash", token("user_1", Instant.now().minusMillis(1)));
+
+		assertThat(cache.get("hash")).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void sweepsExpiredEntriesWhenFull() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(3);
+		cache.put("expired", token("user_1", Instant.now().minusSeconds(1)));
+		cache.put("live-1", token("user_2", Instant.now().plusSeconds(60)));
+		cache.put("live-2", token("user_3", Instant.now().plusSeconds(60)));
+
+		cache.put("live-3", token("user_4", Instant.now().plusSeconds(60)));
+
+		assertThat(cache.size()).isEqualTo(3);
+		assertThat(cache.get("live-1")).isNotNull();
+		assertThat(cache.get("live-3")).isNotNull();
+	}
+
+	@Test
+	void startsOverWhenFullOfLiveTokens() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(2);
+		cache.put("live-1", token("user_1", Instant.now().plusSeconds(60)));
+		cache.put("live-2", token("user_2", Instant.now().plusSeconds(60)));
+
+		cache.put("live-3", token("user_3", Instant.now().plusSeconds(60)));
+
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.get("live-1")).isNull();
+		assertThat(cache.get("live-3")).isNotNull();
+	}
+
+	@Test
+	void hashIsStableAndDoesNotContainTheToken() {
+		String hash = VerifiedTokenCache.hash("eyJhbGciOiJSUzI1NiJ9.payload.signature");
+
+		assertThat(hash).isEqualTo(VerifiedTokenCache.hash("eyJhbGciOiJSUzI1NiJ9.payload.signature"));
+		assertThat(hash).isNotEqualTo(VerifiedTokenCache.hash("eyJhbGciOiJSUzI1NiJ9.payload.signaturf"));
+		assertThat(hash).doesNotContain("payload").hasSize(43);
+	}
+
+	private static VerifiedToken token(String subject, Instant expiresAt) {
+		return new VerifiedToken(subject, null, expiresAt);
+	}
+
+}
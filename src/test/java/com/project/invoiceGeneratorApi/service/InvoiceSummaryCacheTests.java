@@ -0,0 +1,77 @@
+package com.project.invoiceGeneratorApi.service;
+
+import com.project.invoiceGeneratorApi.config.CacheConfig;
+import com.project.invoiceGeneratorApi.dto.InvoiceSummaryPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceSummaryCacheTests {
+
+	private InvoiceSummaryCache cache;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() {
+		cache = new InvoiceSummaryCache(new ConcurrentMapCacheManager(
+				CacheConfig.INVOICE_SUMMARY_GENERATIONS, CacheConfig.INVOICE_SUMMARIES));
+		loads = new AtomicInteger();
+	}
+
+	@Test
+	void servesRepeatedReadsFromCache() {
+		InvoiceSummaryPage first = get("user_1", null);
+		InvoiceSummaryPage second = get("user_1", null);
+
+		assertThat(second).isSameAs(first);
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void keysPagesByCursorAndSize() {
+		get("user_1", null);
+		get("user_1", "cursor");
+		cache.get("user_1", null, 50, Sort.Direction.DESC, this::load);
+		cache.get("user_1", null, 20, Sort.Direction.ASC, this::load);
+
+		assertThat(loads).hasValue(4);
+	}
+
+	@Test
+	void invalidateDropsAllPagesOfTheUser() {
+		get("user_1", null);
+		get("user_1", "cursor");
+
+		cache.invalidate("user_1");
+		get("user_1", null);
+		get("user_1", "cursor");
+
+		assertThat(loads).hasValue(4);
+	}
+
+	@Test
+	void invalidateLeavesOtherUsersCached() {
+		InvoiceSummaryPage other = get("user_2", null);
+
+		cache.invalidate("user_1");
+
+		assertThat(get("user_2", null)).isSameAs(other);
+		assertThat(loads).hasValue(1);
+	}
+
+	private InvoiceSummaryPage get(String clerkId, String cursor) {
+		return cache.get(clerkId, cursor, 20, Sort.Direction.DESC, this::load);
+	}
+
+	private InvoiceSummaryPage load() {
+		loads.incrementAndGet();
+		return new InvoiceSummaryPage(List.of(), null, false);
+	}
+
+}